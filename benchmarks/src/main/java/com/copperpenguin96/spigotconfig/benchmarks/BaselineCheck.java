@@ -0,0 +1,107 @@
+package com.copperpenguin96.spigotconfig.benchmarks;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a run's JMH results against the published baseline and fails if anything got slower than allowed.
+ * Both files are JMH's JSON output ({@code -rf json}). It also fails when there's nothing to compare: no baseline, a
+ * run that shares no benchmark with it, or a run missing some of the baseline's benchmarks. A check that can't
+ * compare shouldn't pass.
+ * <p>
+ * Example: {@code java -cp target/benchmarks.jar com.copperpenguin96.spigotconfig.benchmarks.BaselineCheck
+ * baselines/baseline.json jmh-result.json 15}
+ */
+public final class BaselineCheck {
+
+    /// How much slower than the baseline a benchmark may be by default, in percent.
+    private static final double DEFAULT_TOLERANCE = 15;
+
+    private BaselineCheck() { }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: <baseline.json> <result.json> [tolerance %]");
+            System.exit(2);
+        }
+
+        Path baselineFile = Path.of(args[0]);
+        if (!Files.isRegularFile(baselineFile)) {
+            System.out.println("No baseline at " + baselineFile + ". Record one on the reference machine with "
+                    + "java -jar target/benchmarks.jar -rf json -rff " + baselineFile);
+            System.exit(2);
+        }
+
+        Map<String, Double> baseline = read(baselineFile);
+        Map<String, Double> result = read(Path.of(args[1]));
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+
+        int regressions = 0;
+        int compared = 0;
+        for (String name : baseline.keySet()) {
+            if (!result.containsKey(name)) {
+                regressions++;
+                System.out.printf("! missing %s%n", name);
+            }
+        }
+
+        for (Map.Entry<String, Double> run : result.entrySet()) {
+            Double before = baseline.get(run.getKey());
+            if (before == null) {
+                System.out.printf("  new    %s: %.3f%n", run.getKey(), run.getValue());
+                continue;
+            }
+
+            // Every suite reports time per operation, so higher is slower.
+            compared++;
+            double change = (run.getValue() - before) / before * 100;
+            boolean regressed = change > tolerance;
+            if (regressed) regressions++;
+            System.out.printf("%s %+6.1f%% %s: %.3f -> %.3f%n", regressed ? "! slower" : "  ok    ", change,
+                    run.getKey(), before, run.getValue());
+        }
+
+        System.out.printf("%d benchmarks compared, %d slower than the baseline by more than %.0f%% or missing%n",
+                compared, regressions, tolerance);
+        if (compared == 0) {
+            System.out.println("Nothing in common with the baseline, record it again");
+            System.exit(2);
+        }
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    /**
+     * Reads the score of every benchmark, keyed by its name and parameters.
+     */
+    private static Map<String, Double> read(Path file) throws IOException {
+        TreeMap<String, Double> scores = new TreeMap<>();
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (JsonElement element : JsonParser.parseReader(reader).getAsJsonArray()) {
+                JsonObject run = element.getAsJsonObject();
+                StringBuilder key = new StringBuilder(run.get("benchmark").getAsString());
+
+                if (run.has("params")) {
+                    TreeMap<String, String> params = new TreeMap<>();
+                    for (Map.Entry<String, JsonElement> param : run.getAsJsonObject("params").entrySet()) {
+                        params.put(param.getKey(), param.getValue().getAsString());
+                    }
+                    key.append(params);
+                }
+
+                scores.put(key.toString(), run.getAsJsonObject("primaryMetric").get("score").getAsDouble());
+            }
+        }
+
+        return scores;
+    }
+}
@@ -0,0 +1,84 @@
+package com.copperpenguin96.spigotconfig.benchmarks;
+
+import com.copperpenguin96.spigotconfig.DatapackCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the names of the world's datapacks, which the datapack lists need before they can be shown. A cold scan
+ * opens every pack.mcmeta, a warm one is answered by the catalog's cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatapackScanBenchmark {
+
+    /// How many packs are in the datapacks folder.
+    @Param({"10", "100", "500"})
+    public int packs;
+
+    private Path _dir;
+    private File _datapacks;
+    private Path _coldCache;
+    private DatapackCatalog _warm;
+
+    @Setup(Level.Trial)
+    public void createPacks() throws IOException {
+        _dir = Fixtures.createDir();
+        Fixtures.datapacks(_dir.resolve("datapacks"), packs);
+        _datapacks = _dir.resolve("datapacks").toFile();
+        _coldCache = _dir.resolve("cold-index.bin");
+
+        _warm = new DatapackCatalog(_dir.resolve("warm-index.bin"));
+        _warm.scan(_datapacks);
+    }
+
+    @Setup(Level.Invocation)
+    public void forgetCache() throws IOException {
+        Files.deleteIfExists(_coldCache);
+    }
+
+    @TearDown(Level.Trial)
+    public void deletePacks() throws IOException {
+        Fixtures.delete(_dir);
+    }
+
+    /// No cache yet, like the first start with this world.
+    @Benchmark
+    public List<String> coldScan() {
+        return new DatapackCatalog(_coldCache).scan(_datapacks);
+    }
+
+    /// Every pack is in the cache.
+    @Benchmark
+    public List<String> warmScan() {
+        return _warm.scan(_datapacks);
+    }
+
+    /// Reading the cache from disk and scanning, like a start where nothing changed.
+    @Benchmark
+    public List<String> restartScan() {
+        return new DatapackCatalog(_dir.resolve("warm-index.bin")).scan(_datapacks);
+    }
+}
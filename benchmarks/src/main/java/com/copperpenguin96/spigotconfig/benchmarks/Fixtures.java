@@ -0,0 +1,159 @@
+package com.copperpenguin96.spigotconfig.benchmarks;
+
+import com.copperpenguin96.spigotconfig.PropertySchema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Builds the files the benchmarks run against, so every run sees the same input without any of it being checked in.
+ * The shapes follow real servers: a server.properties as the server writes it, plugin jars with a plugin.yml and a
+ * few dozen classes, and datapacks as both folders and zips.
+ */
+public final class Fixtures {
+
+    /// Every this many plugins ships a SpigotConfig class, the rest don't support the application.
+    public static final int MANIFEST_EVERY = 10;
+
+    /// Classes in each plugin jar besides the main class, so the zip directory has a realistic size.
+    private static final int CLASSES_PER_JAR = 40;
+
+    private Fixtures() { }
+
+    /**
+     * Creates an empty folder for a benchmark's files.
+     * @return The folder.
+     */
+    public static Path createDir() throws IOException {
+        return Files.createTempDirectory("spigotconfig-bench");
+    }
+
+    /**
+     * Deletes a folder made by {@link #createDir()} and everything in it.
+     */
+    public static void delete(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) return;
+
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Builds a server.properties the way the server writes it: a header, then every property of the schema.
+     * @param schema The schema of the server's version.
+     * @param unknown How many keys the schema doesn't know to add, like the ones left behind by older versions.
+     * @return The contents of the file.
+     */
+    public static byte[] serverProperties(PropertySchema schema, int unknown) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("#Minecraft server properties\n");
+        sb.append("#Sat Jan 04 12:00:00 UTC 2025\n");
+
+        for (int x = 0; x < schema.size(); x++) {
+            sb.append(schema.get(x).getKey()).append('=').append(schema.get(x).getDefaultValue()).append('\n');
+        }
+        for (int x = 0; x < unknown; x++) {
+            sb.append("legacy-setting-").append(x).append('=').append(x).append('\n');
+        }
+
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Fills a plugins folder with jars. Every {@link #MANIFEST_EVERY}th one ships a SpigotConfig class.
+     * @param dir The plugins folder.
+     * @param count How many jars.
+     */
+    public static void plugins(Path dir, int count) throws IOException {
+        Files.createDirectories(dir);
+
+        for (int x = 0; x < count; x++) {
+            String pkg = "com/example/plugin" + x;
+            try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(dir.resolve("Plugin" + x + ".jar")))) {
+                zip.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+                zip.write("Manifest-Version: 1.0\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+
+                zip.putNextEntry(new ZipEntry("plugin.yml"));
+                zip.write(("name: Plugin" + x + "\nversion: 1.0." + x + "\nmain: " + pkg.replace('/', '.') + ".Plugin" + x
+                        + "\napi-version: '1.21'\nauthors: [Someone]\ndescription: Plugin number " + x + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+
+                zip.putNextEntry(new ZipEntry(pkg + "/Plugin" + x + ".class"));
+                zip.write(new byte[512]);
+                for (int y = 0; y < CLASSES_PER_JAR; y++) {
+                    zip.putNextEntry(new ZipEntry(pkg + "/internal/Part" + y + ".class"));
+                    zip.write(new byte[256]);
+                }
+
+                if (x % MANIFEST_EVERY == 0) {
+                    zip.putNextEntry(new ZipEntry(pkg + "/SpigotConfig.class"));
+                    zip.write(new byte[512]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills a datapacks folder, half of the packs as folders and half as zips.
+     * @param dir The datapacks folder.
+     * @param count How many packs.
+     */
+    public static void datapacks(Path dir, int count) throws IOException {
+        Files.createDirectories(dir);
+
+        for (int x = 0; x < count; x++) {
+            byte[] meta = ("{\n  \"pack\": {\n    \"pack_format\": 48,\n    \"description\": {\"translate\": \"pack-" + x
+                    + "\", \"fallback\": \"Pack number " + x + "\"}\n  }\n}\n").getBytes(StandardCharsets.UTF_8);
+
+            if (x % 2 == 0) {
+                Path pack = Files.createDirectories(dir.resolve("pack" + x));
+                Files.write(pack.resolve("pack.mcmeta"), meta);
+                Files.createDirectories(pack.resolve("data").resolve("pack" + x).resolve("function"));
+            } else {
+                try (OutputStream out = Files.newOutputStream(dir.resolve("pack" + x + ".zip"));
+                     ZipOutputStream zip = new ZipOutputStream(out)) {
+                    zip.putNextEntry(new ZipEntry("pack.mcmeta"));
+                    zip.write(meta);
+                    zip.putNextEntry(new ZipEntry("data/pack" + x + "/function/tick.mcfunction"));
+                    zip.write("say hi\n".getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds a tab's fxml: an AnchorPane with pairs of labels and text fields, and a button at the end.
+     * @param fields How many label and text field pairs.
+     * @return The fxml.
+     */
+    public static byte[] tabFxml(int fields) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<?import javafx.scene.control.*?>\n<?import javafx.scene.layout.*?>\n");
+        sb.append("<AnchorPane prefHeight=\"281.0\" prefWidth=\"574.0\" xmlns=\"http://javafx.com/javafx/17.0.12\"");
+        sb.append(" xmlns:fx=\"http://javafx.com/fxml/1\">\n  <children>\n");
+
+        for (int x = 0; x < fields; x++) {
+            double y = 10 + x * 30;
+            sb.append("    <Label fx:id=\"lblField").append(x).append("\" layoutX=\"14.0\" layoutY=\"").append(y)
+                    .append("\" text=\"Field ").append(x).append("\" />\n");
+            sb.append("    <TextField fx:id=\"txtField").append(x).append("\" layoutX=\"120.0\" layoutY=\"").append(y)
+                    .append("\" />\n");
+        }
+        sb.append("    <Button fx:id=\"btnAction\" layoutX=\"261.0\" layoutY=\"").append(10 + fields * 30)
+                .append("\" mnemonicParsing=\"false\" text=\"Button\" />\n");
+
+        sb.append("  </children>\n</AnchorPane>\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
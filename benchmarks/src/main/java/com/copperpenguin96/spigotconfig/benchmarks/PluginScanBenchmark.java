@@ -0,0 +1,90 @@
+package com.copperpenguin96.spigotconfig.benchmarks;
+
+import com.copperpenguin96.spigotconfig.JarProbe;
+import com.copperpenguin96.spigotconfig.PluginIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking through the plugins folder at startup. A cold scan probes every jar's zip directory, a warm one is answered
+ * by the plugin index without opening the jars.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PluginScanBenchmark {
+
+    /// How many jars are in the plugins folder.
+    @Param({"10", "100", "500"})
+    public int jars;
+
+    private Path _dir;
+    private File[] _jars;
+    private Path _indexFile;
+
+    @Setup(Level.Trial)
+    public void createPlugins() throws IOException {
+        _dir = Fixtures.createDir();
+        Fixtures.plugins(_dir.resolve("plugins"), jars);
+        _jars = _dir.resolve("plugins").toFile().listFiles();
+        Arrays.sort(_jars);
+
+        // A full index, as left behind by the previous start.
+        _indexFile = _dir.resolve("plugin-index.bin");
+        PluginIndex index = PluginIndex.load(_indexFile);
+        for (File jar : _jars) {
+            JarProbe.Result result = JarProbe.probe(jar);
+            if (result != null) index.record(jar, result.mainPackage(), result.integrates(), result.provider());
+        }
+        index.save();
+    }
+
+    @TearDown(Level.Trial)
+    public void deletePlugins() throws IOException {
+        Fixtures.delete(_dir);
+    }
+
+    /// Probing every jar, like the first start with these plugins.
+    @Benchmark
+    public void probeAll(Blackhole blackhole) throws IOException {
+        for (File jar : _jars) {
+            blackhole.consume(JarProbe.probe(jar));
+        }
+    }
+
+    /// Reading the index and looking up every jar, like a start where nothing changed.
+    @Benchmark
+    public void indexedLookup(Blackhole blackhole) throws IOException {
+        PluginIndex index = PluginIndex.load(_indexFile);
+        for (File jar : _jars) {
+            blackhole.consume(index.lookup(jar));
+        }
+    }
+
+    /// Listing the folder, the part every start pays for.
+    @Benchmark
+    public File[] listFolder() {
+        return _dir.resolve("plugins").toFile().listFiles();
+    }
+}
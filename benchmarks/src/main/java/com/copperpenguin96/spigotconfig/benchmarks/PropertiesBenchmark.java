@@ -0,0 +1,108 @@
+package com.copperpenguin96.spigotconfig.benchmarks;
+
+import com.copperpenguin96.spigotconfig.PropertySchema;
+import com.copperpenguin96.spigotconfig.ServerProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing server.properties: what the window does on load and on every save, and what the headless mode
+ * does once per server.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertiesBenchmark {
+
+    /// How many keys the schema doesn't know are in the file.
+    @Param({"0", "50"})
+    public int unknown;
+
+    private PropertySchema _schema;
+    private byte[] _data;
+    private Path _dir;
+    private Path _file;
+
+    /// Parsed once per invocation for the benchmarks that change it.
+    private ServerProperties _props;
+
+    @Setup(Level.Trial)
+    public void createFiles() throws IOException {
+        _schema = PropertySchema.VANILLA;
+        _data = Fixtures.serverProperties(_schema, unknown);
+        _dir = Fixtures.createDir();
+        _file = _dir.resolve("server.properties");
+        Files.write(_file, _data);
+    }
+
+    @Setup(Level.Invocation)
+    public void parseFresh() {
+        _props = ServerProperties.parse(_schema, _data);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Fixtures.delete(_dir);
+    }
+
+    /// Parsing alone, from bytes already in memory.
+    @Benchmark
+    public ServerProperties parse() {
+        return ServerProperties.parse(_schema, _data);
+    }
+
+    /// Reading the file and parsing it, like opening the window.
+    @Benchmark
+    public ServerProperties load() throws IOException {
+        return ServerProperties.load(_schema, _file);
+    }
+
+    /// Saving with nothing changed, which should find out and skip the write.
+    @Benchmark
+    public byte[] snapshotUnchanged() {
+        return _props.snapshot();
+    }
+
+    /// Patching a single line, the usual save.
+    @Benchmark
+    public byte[] snapshotOneChange() {
+        _props.set("view-distance", "8");
+        return _props.snapshot();
+    }
+
+    /// Writing the file for every value, as if it had never been read.
+    @Benchmark
+    public byte[] format() {
+        ServerProperties props = new ServerProperties(_schema);
+        for (int x = 0; x < _schema.size(); x++) {
+            props.set(x, _schema.get(x).getDefaultValue());
+        }
+        return props.snapshot();
+    }
+
+    /// A full save through the atomic writer, fsync included.
+    @Benchmark
+    public boolean save() throws IOException {
+        _props.set("view-distance", "8");
+        return _props.save(_file);
+    }
+}
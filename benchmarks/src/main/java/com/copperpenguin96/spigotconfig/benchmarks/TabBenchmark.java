@@ -0,0 +1,98 @@
+package com.copperpenguin96.spigotconfig.benchmarks;
+
+import com.copperpenguin96.spigotconfig.ConfigTab;
+import com.copperpenguin96.spigotconfig.TabDescriptor;
+import javafx.application.Platform;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Building a plugin's tab: loading its fxml into a scene and hooking up its events. Runs on the FX thread like the
+ * real thing, so it needs a display (or Monocle, with -Dglass.platform=Monocle -Dmonocle.platform=Headless).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TabBenchmark {
+
+    /**
+     * A tab like the README's example, with a generated fxml.
+     */
+    public static class GeneratedTab extends ConfigTab {
+        public GeneratedTab(byte[] fxml) {
+            super("Generated Tab");
+            addEvent("btnAction", ActionEvent.ACTION, (EventHandler<ActionEvent>) event -> { });
+            setClass(getClass());
+            setScene(new ByteArrayInputStream(fxml));
+        }
+    }
+
+    /// How many label and text field pairs the tab has.
+    @Param({"5", "50"})
+    public int fields;
+
+    private byte[] _fxml;
+
+    @Setup(Level.Trial)
+    public void startFx() {
+        _fxml = Fixtures.tabFxml(fields);
+
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException e) {
+            // already running
+        }
+        Platform.setImplicitExit(false);
+    }
+
+    /// Building the tab right away, like tabs added with add(ConfigTab).
+    @Benchmark
+    public ConfigTab build() {
+        return onFxThread(() -> new GeneratedTab(_fxml));
+    }
+
+    /// Registering a lazy tab, like tabs added with add(name, factory). Nothing is built until it's opened.
+    @Benchmark
+    public TabDescriptor registerLazy() {
+        return new TabDescriptor("Generated Tab", () -> new GeneratedTab(_fxml));
+    }
+
+    /// Registering a lazy tab and opening it.
+    @Benchmark
+    public ConfigTab registerAndOpen() {
+        TabDescriptor descriptor = new TabDescriptor("Generated Tab", () -> new GeneratedTab(_fxml));
+        return onFxThread(descriptor::get);
+    }
+
+    private static <T> T onFxThread(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e); // an Error too, or join() would wait forever
+            }
+        });
+        return result.join();
+    }
+}
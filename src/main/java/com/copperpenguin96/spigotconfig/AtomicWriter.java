@@ -0,0 +1,159 @@
+package com.copperpenguin96.spigotconfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replaces files so that readers only ever see the old or the new contents, never a half written file. The new
+ * contents go into a temporary file next to the target, are flushed to disk, and are then moved over the target.
+ * The temporary file is given the target's permissions, and owner where allowed, so replacing a file doesn't change
+ * who can read it. New files get the same permissions as any other file we create.
+ * <p>
+ * A target that is a symbolic link stays one: the file it points to is replaced instead. Deployments often link
+ * server.properties to a shared config.
+ */
+public final class AtomicWriter {
+
+    /// How many links are followed before giving up, like the limit most systems have.
+    private static final int MAX_LINKS = 40;
+
+    private AtomicWriter() { }
+
+    /**
+     * Atomically replaces the contents of a file.
+     * @param target The file to write.
+     * @param data The new contents.
+     * @param backup Whether to keep the previous contents as target.bak, next to the target even if it's a link.
+     * @throws IOException Will throw if the file can't be written. The target is left untouched in that case.
+     */
+    public static void write(Path target, ByteBuffer data, boolean backup) throws IOException {
+        Path file = resolve(target);
+        Path dir = file.getParent();
+        Path temp = createTemp(dir, file.getFileName().toString());
+
+        try {
+            // Before anything is written, so the new contents of a private file are never readable by others.
+            copyAttributes(file, temp);
+
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+                channel.force(true);
+            }
+
+            if (backup && Files.exists(file)) {
+                Files.copy(file, target.resolveSibling(target.getFileName() + ".bak"), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        syncDirectory(dir);
+    }
+
+    /**
+     * Atomically replaces the contents of a file, without keeping a backup.
+     * @param target The file to write.
+     * @param data The new contents.
+     * @throws IOException Will throw if the file can't be written.
+     */
+    public static void write(Path target, byte[] data) throws IOException {
+        write(target, ByteBuffer.wrap(data), false);
+    }
+
+    /**
+     * Finds the file a target really is, following symbolic links, so the link isn't replaced by a plain file.
+     * @param target The file to write.
+     * @return The absolute path of the file the target points to, or the target if it isn't a link.
+     * @throws IOException Will throw if the links go around in circles.
+     */
+    private static Path resolve(Path target) throws IOException {
+        if (Files.exists(target)) return target.toRealPath();
+
+        // A link to a file that doesn't exist yet, toRealPath won't follow it.
+        Path file = target.toAbsolutePath();
+        for (int x = 0; Files.isSymbolicLink(file); x++) {
+            if (x == MAX_LINKS) throw new FileSystemException(target.toString(), null, "Too many levels of symbolic links");
+            file = file.resolveSibling(Files.readSymbolicLink(file));
+        }
+        return file;
+    }
+
+    /**
+     * Creates the temporary file for a target. Unlike Files.createTempFile, it gets the default permissions of new
+     * files rather than being private, which is what a new target should end up with.
+     * @param dir The target's directory.
+     * @param name The target's file name.
+     * @return The temporary file, empty.
+     */
+    private static Path createTemp(Path dir, String name) throws IOException {
+        while (true) {
+            Path temp = dir.resolve(name + "." + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+            try {
+                return Files.createFile(temp);
+            } catch (FileAlreadyExistsException e) {
+                // Taken, pick another name.
+            }
+        }
+    }
+
+    /**
+     * Gives the temporary file the permissions, owner and group of the file it replaces, which the rename would
+     * otherwise replace with the defaults. New files keep the defaults, as do file systems without POSIX attributes,
+     * and an owner we aren't allowed to set is left as it is.
+     * @param target The file being replaced.
+     * @param temp The temporary file.
+     */
+    private static void copyAttributes(Path target, Path temp) throws IOException {
+        PosixFileAttributeView targetView = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        PosixFileAttributeView tempView = Files.getFileAttributeView(temp, PosixFileAttributeView.class);
+        if (targetView == null || tempView == null) return;
+
+        PosixFileAttributes attributes;
+        try {
+            attributes = targetView.readAttributes();
+        } catch (NoSuchFileException e) {
+            return; // a new file
+        }
+
+        tempView.setPermissions(attributes.permissions());
+        try {
+            tempView.setGroup(attributes.group());
+            tempView.setOwner(attributes.owner());
+        } catch (IOException e) {
+            // Only root can give files away, the permissions are what matters.
+        }
+    }
+
+    /**
+     * Flushes the directory entry of the rename to disk. Not every platform allows opening a directory, in which
+     * case the rename is left to the file system.
+     */
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Not supported here (Windows), nothing else to do.
+        }
+    }
+}
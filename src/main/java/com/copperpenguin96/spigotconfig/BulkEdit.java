@@ -0,0 +1,327 @@
+package com.copperpenguin96.spigotconfig;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Sets the same properties on many servers at once. A bulk edit is worked out first as a diff per server, which can
+ * be looked over, and then applied. Servers are handled concurrently, but only so many at a time, and every file is
+ * replaced atomically.
+ * <p>
+ * Example: {@code new BulkEdit().set("view-distance", "8").where("level-type", "minecraft:normal").preview(dirs)}
+ */
+public class BulkEdit {
+
+    /// How many servers are read or written at the same time by default.
+    public static final int DEFAULT_JOBS = 32;
+
+    /**
+     * What happened, or would happen, to a server.
+     */
+    public enum Status {
+        /// The server would be changed, nothing has been written yet.
+        PENDING,
+        /// The server's file was written.
+        WRITTEN,
+        /// The server already has the values.
+        UNCHANGED,
+        /// The server didn't match the filter.
+        SKIPPED,
+        /// The server couldn't be read or written, see the error.
+        FAILED
+    }
+
+    /**
+     * A single value that changes.
+     * @param key The key.
+     * @param before The value before, or null if it wasn't set.
+     * @param after The value after.
+     */
+    public record Change(String key, String before, String after) { }
+
+    /**
+     * The changes to a single server.
+     * @param dir The server's root directory.
+     * @param version The server's version, or null if it couldn't be read.
+     * @param status What happened, or would happen.
+     * @param changes The values that change, empty if none do.
+     * @param error Why the server failed, or null.
+     * @param original The file the diff was worked out from, so edits made since can be noticed. Null if not pending.
+     * @param data The new contents of the file. Null if not pending.
+     */
+    public record Diff(Path dir, String version, Status status, List<Change> changes, String error,
+                       byte[] original, byte[] data) {
+
+        private Diff with(Status status, String error) {
+            return new Diff(dir, version, status, changes, error, null, null);
+        }
+    }
+
+    /// The properties to set, in the order given.
+    private final LinkedHashMap<String, String> _changes = new LinkedHashMap<>();
+
+    /// Which servers to change, given their directory and current properties.
+    private BiPredicate<Path, ServerProperties> _filter = (dir, props) -> true;
+
+    /// How many servers to handle at the same time.
+    private int _jobs = DEFAULT_JOBS;
+
+    /// Whether to keep the previous files as server.properties.bak.
+    private boolean _backup = false;
+
+    /**
+     * Adds a property to set.
+     * @param key The key.
+     * @param value The value.
+     * @return This edit.
+     */
+    public BulkEdit set(String key, String value) {
+        _changes.put(key, value);
+        return this;
+    }
+
+    /**
+     * Only changes servers that match. Calling it again narrows the selection further.
+     * @param filter Given a server's directory and current properties, whether to change it.
+     * @return This edit.
+     */
+    public BulkEdit where(BiPredicate<Path, ServerProperties> filter) {
+        _filter = _filter.and(filter);
+        return this;
+    }
+
+    /**
+     * Only changes servers that currently have a value, counting defaults for keys they don't set.
+     * @param key The key.
+     * @param value The value they must have.
+     * @return This edit.
+     */
+    public BulkEdit where(String key, String value) {
+        return where((dir, props) -> {
+            int index = props.getSchema().indexOf(key);
+            return value.equals(index >= 0 ? props.getString(index) : props.get(key));
+        });
+    }
+
+    /**
+     * Sets how many servers are handled at the same time.
+     * @param jobs At least 1.
+     * @return This edit.
+     */
+    public BulkEdit jobs(int jobs) {
+        if (jobs < 1) throw new IllegalArgumentException("jobs must be at least 1");
+        _jobs = jobs;
+        return this;
+    }
+
+    /**
+     * Sets whether to keep the previous files as server.properties.bak.
+     * @return This edit.
+     */
+    public BulkEdit backup(boolean backup) {
+        _backup = backup;
+        return this;
+    }
+
+    /**
+     * Works out what would change on every server, without writing anything.
+     * @param dirs The server directories.
+     * @return A diff per server, in the order given.
+     */
+    public List<Diff> preview(Collection<Path> dirs) {
+        return run(new ArrayList<>(dirs), this::diff);
+    }
+
+    /**
+     * Writes the pending servers of a preview. A server whose file changed since the preview fails rather than
+     * losing the other change, preview it again to pick it up.
+     * @param preview The diffs from {@link #preview(Collection)}.
+     * @return The diffs again, with what happened to each.
+     */
+    public List<Diff> apply(List<Diff> preview) {
+        return run(preview, this::write);
+    }
+
+    /**
+     * Previews and applies in one go.
+     * @param dirs The server directories.
+     * @return A diff per server, in the order given, with what happened to each.
+     */
+    public List<Diff> apply(Collection<Path> dirs) {
+        return run(new ArrayList<>(dirs), dir -> write(diff(dir)));
+    }
+
+    /**
+     * Works out the changes to a single server.
+     */
+    private Diff diff(Path dir) {
+        String version = null;
+        try {
+            Path file = dir.resolve("server.properties");
+            if (!Files.isRegularFile(file)) throw new IOException("server.properties not found");
+
+            // Each server may run a different version, so each gets its own schema.
+            PropertySchema schema = SchemaPack.forServer(dir);
+            version = schema.getVersion();
+            byte[] original = Files.readAllBytes(file);
+            ServerProperties props = ServerProperties.parse(schema, original);
+
+            if (!_filter.test(dir, props)) return new Diff(dir, version, Status.SKIPPED, List.of(), null, null, null);
+
+            ArrayList<Change> changes = new ArrayList<>();
+            for (Map.Entry<String, String> change : _changes.entrySet()) {
+                String key = change.getKey();
+                int index = schema.indexOf(key);
+                String problem = index < 0 ? null : schema.get(index).validate(change.getValue());
+                if (problem != null) throw new IllegalArgumentException(key + " " + problem);
+
+                String before = props.get(key);
+                props.set(key, change.getValue());
+                String after = props.get(key);
+                if (!Objects.equals(before, after)) changes.add(new Change(key, before, after));
+            }
+
+            // Repeated keys alone aren't worth a write.
+            byte[] data = changes.isEmpty() ? null : props.snapshot();
+            if (data == null) return new Diff(dir, version, Status.UNCHANGED, List.of(), null, null, null);
+
+            return new Diff(dir, version, Status.PENDING, List.copyOf(changes), null, original, data);
+        } catch (IOException | RuntimeException e) {
+            return new Diff(dir, version, Status.FAILED, List.of(), message(e), null, null);
+        }
+    }
+
+    /**
+     * Writes a single pending server.
+     */
+    private Diff write(Diff diff) {
+        if (diff.status() != Status.PENDING) return diff;
+
+        try {
+            Path file = diff.dir().resolve("server.properties");
+            if (!Arrays.equals(Files.readAllBytes(file), diff.original())) {
+                return diff.with(Status.FAILED, "server.properties changed since the preview");
+            }
+
+            ServerProperties.write(file, diff.data(), _backup);
+            return diff.with(Status.WRITTEN, null);
+        } catch (IOException | RuntimeException e) {
+            return diff.with(Status.FAILED, message(e));
+        }
+    }
+
+    /**
+     * Runs a task for every item, no more than {@link #jobs(int)} at the same time.
+     * @return The results, in the order of the items.
+     */
+    private <T> List<Diff> run(List<T> items, Function<T, Diff> task) {
+        ArrayList<Future<Diff>> results = new ArrayList<>(items.size());
+        Semaphore slots = new Semaphore(_jobs);
+
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (T item : items) {
+                results.add(workers.submit(() -> {
+                    slots.acquire();
+                    try {
+                        return task.apply(item);
+                    } finally {
+                        slots.release();
+                    }
+                }));
+            }
+
+            ArrayList<Diff> diffs = new ArrayList<>(items.size());
+            for (Future<Diff> result : results) {
+                diffs.add(result.get());
+            }
+            return diffs;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        } catch (ExecutionException e) {
+            // Tasks report their own failures, this is a bug.
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Counts the servers with a status.
+     * @param diffs The diffs.
+     * @param status The status.
+     * @return How many have it.
+     */
+    public static int count(List<Diff> diffs, Status status) {
+        int count = 0;
+        for (Diff diff : diffs) {
+            if (diff.status() == status) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the diffs as JSON, for scripts to read.
+     * @param diffs The diffs.
+     * @param out Where to write them. Not closed.
+     * @throws IOException Will throw if the report can't be written.
+     */
+    public static void writeReport(List<Diff> diffs, Writer out) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.setIndent("  ");
+        json.setSerializeNulls(false);
+
+        json.beginObject();
+        json.name("servers").value(diffs.size());
+        for (Status status : Status.values()) {
+            json.name(status.name().toLowerCase()).value(count(diffs, status));
+        }
+
+        json.name("results").beginArray();
+        for (Diff diff : diffs) {
+            json.beginObject();
+            json.name("dir").value(diff.dir().toString());
+            json.name("version").value(diff.version());
+            json.name("status").value(diff.status().name().toLowerCase());
+            json.name("error").value(diff.error());
+
+            json.name("changes").beginArray();
+            for (Change change : diff.changes()) {
+                json.beginObject();
+                json.name("key").value(change.key());
+                json.name("before").value(change.before());
+                json.name("after").value(change.after());
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+        json.endArray();
+
+        json.endObject();
+        json.flush();
+    }
+
+    private static String message(Exception e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+    }
+}
@@ -0,0 +1,156 @@
+package com.copperpenguin96.spigotconfig;
+
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * Keeps track of which properties were changed since they were loaded or saved. Every property has a baseline value
+ * and a current value, indexed by its position in the schema, and a dirty bit that is set while the two differ. Updating
+ * a value is constant time, and changing a value back to its baseline clears the bit again.
+ */
+public class ChangeTracker {
+
+    /// The values as they were loaded or last saved, null if there wasn't one.
+    private final String[] _baseline;
+
+    /// The values as they are now, null if there isn't one.
+    private final String[] _current;
+
+    /// One bit per property, set while the current value differs from the baseline.
+    private final BitSet _dirty;
+
+    /// How many bits are set in _dirty, kept up to date so it doesn't need counting.
+    private int _count = 0;
+
+    /// Called with the new count whenever the number of changed properties goes up or down.
+    private IntConsumer _onCountChanged;
+
+    /**
+     * Creates a tracker with nothing loaded yet.
+     * @param size The number of properties in the schema.
+     */
+    public ChangeTracker(int size) {
+        _baseline = new String[size];
+        _current = new String[size];
+        _dirty = new BitSet(size);
+    }
+
+    /**
+     * Sets what gets called when the number of changed properties changes.
+     * @param onCountChanged Called with the new count.
+     */
+    public void setOnCountChanged(IntConsumer onCountChanged) {
+        _onCountChanged = onCountChanged;
+    }
+
+    /**
+     * Records the current value of a property.
+     * @param index The property's index in the schema.
+     * @param value The value, or null if there isn't one.
+     */
+    public void update(int index, String value) {
+        _current[index] = value;
+        mark(index);
+    }
+
+    /**
+     * Makes the current values the new baseline, so nothing is changed anymore.
+     */
+    public void rebase() {
+        System.arraycopy(_current, 0, _baseline, 0, _current.length);
+        _dirty.clear();
+        setCount(0);
+    }
+
+    /**
+     * Makes the specified values the new baseline. Properties whose current value differs from them stay changed.
+     * @param values The values, as returned by {@link #values()}.
+     */
+    public void rebase(String[] values) {
+        System.arraycopy(values, 0, _baseline, 0, _baseline.length);
+        for (int x = 0; x < _baseline.length; x++) {
+            _dirty.set(x, !Objects.equals(_baseline[x], _current[x]));
+        }
+        setCount(_dirty.cardinality());
+    }
+
+    /**
+     * Sets the baseline of a single property.
+     * @param index The property's index in the schema.
+     * @param value The new baseline.
+     */
+    public void rebase(int index, String value) {
+        _baseline[index] = value;
+        mark(index);
+    }
+
+    /**
+     * Checks if the property was changed.
+     * @param index The property's index in the schema.
+     * @return True if its current value differs from its baseline.
+     */
+    public boolean isDirty(int index) {
+        return _dirty.get(index);
+    }
+
+    /**
+     * Gets the number of changed properties.
+     * @return The count.
+     */
+    public int getCount() {
+        return _count;
+    }
+
+    /**
+     * Gets the value the property was loaded or last saved with.
+     * @param index The property's index in the schema.
+     * @return The baseline, or null if there wasn't one.
+     */
+    public String getBaseline(int index) {
+        return _baseline[index];
+    }
+
+    /**
+     * Gets the current value of the property.
+     * @param index The property's index in the schema.
+     * @return The value, or null if there isn't one.
+     */
+    public String getValue(int index) {
+        return _current[index];
+    }
+
+    /**
+     * Copies the current values, so they can become the baseline later on (once a save went through, for example).
+     * @return The values, indexed by schema position.
+     */
+    public String[] values() {
+        return _current.clone();
+    }
+
+    /**
+     * Gets the changed properties.
+     * @return A copy of the dirty bits, indexed by schema position.
+     */
+    public BitSet getDirty() {
+        return (BitSet) _dirty.clone();
+    }
+
+    /**
+     * Updates the dirty bit of a property and the count along with it.
+     */
+    private void mark(int index) {
+        boolean dirty = !Objects.equals(_baseline[index], _current[index]);
+        if (dirty == _dirty.get(index)) return;
+
+        _dirty.set(index, dirty);
+        setCount(_count + (dirty ? 1 : -1));
+    }
+
+    private void setCount(int count) {
+        if (count == _count) return;
+
+        _count = count;
+        if (_onCountChanged != null) _onCountChanged.accept(count);
+    }
+}
@@ -1,27 +1,79 @@
 package com.copperpenguin96.spigotconfig;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ConfigApplication extends Application {
     @Override
     public void start(Stage stage) throws IOException {
+        // --workspace <dirs> opens several servers side by side instead of the one in the working directory
+        List<String> args = getParameters().getRaw();
+        int workspace = args.indexOf("--workspace");
+        if (workspace >= 0) {
+            ArrayList<Path> dirs = new ArrayList<>();
+            for (String arg : args.subList(workspace + 1, args.size())) {
+                if (arg.startsWith("--")) break;
+                dirs.addAll(HeadlessCli.expandDirs(arg));
+            }
+
+            stage.setTitle("Spigot Minecart Configuration - " + dirs.size() + " servers");
+            openWorkspace(stage, dirs);
+            return;
+        }
+
+        StartupTrace.recordSinceLaunch("Start JVM and JavaFX");
+
+        // Includes MainScreen.initialize, which times its own phases.
         URL main = getClass().getResource("MainScreen.fxml");
         FXMLLoader fxmlLoader = new FXMLLoader(main);
-        Scene scene = new Scene(fxmlLoader.load());
+        Scene scene;
+        try (StartupTrace.Timer timer = StartupTrace.begin("startup", "Load MainScreen.fxml")) {
+            scene = new Scene(fxmlLoader.load());
+        }
         stage.setTitle("Spigot Minecart Configuration");
         stage.setScene(scene);
-        stage.show();
+        try (StartupTrace.Timer timer = StartupTrace.begin("startup", "Show window")) {
+            stage.show();
+        }
+    }
+
+    /**
+     * Shows the window right away with a progress bar, and reads the servers in the background. The table takes its
+     * place once every server was read.
+     */
+    private static void openWorkspace(Stage stage, List<Path> dirs) {
+        ProgressBar progress = new ProgressBar(0);
+        Label status = new Label("Opening " + dirs.size() + " servers");
+        VBox loading = new VBox(8, status, progress);
+        loading.setAlignment(Pos.CENTER);
 
+        Scene scene = new Scene(loading, 1000, 600);
+        stage.setScene(scene);
+        stage.show();
 
+        Thread.ofVirtual().name("workspace-open").start(() -> {
+            Workspace workspace = Workspace.open(dirs, opened -> Platform.runLater(() -> {
+                progress.setProgress((double) opened / dirs.size());
+                status.setText("Opening servers " + opened + "/" + dirs.size());
+            }));
+            Platform.runLater(() -> scene.setRoot(new WorkspaceScreen(workspace)));
+        });
     }
 
     public static void main(String[] args) {
-        launch();
+        launch(args);
     }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.copperpenguin96.spigotconfig;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the work plugins make the application do, so a recording shows which plugin is slow
+ * rather than only generic class loading. Each event times itself between begin() and commit(), and costs next to
+ * nothing when no recording is running.
+ * <p>
+ * Example: {@code java -XX:StartFlightRecording=filename=config.jfr -jar SpigotConfig.jar}, then look for the
+ * Spigot Config category in JDK Mission Control or {@code jfr print --categories "Spigot Config" config.jfr}.
+ */
+public final class ConfigEvents {
+
+    private ConfigEvents() { }
+
+    @Name("com.copperpenguin96.spigotconfig.PluginProbed")
+    @Label("Plugin Jar Probed")
+    @Category({"Spigot Config", "Plugins"})
+    @Description("A plugin jar was checked for a SpigotConfig class")
+    @StackTrace(false)
+    public static final class PluginProbed extends Event {
+        @Label("Plugin")
+        @Description("File name of the plugin's jar")
+        public String plugin;
+
+        @Label("Jar Size")
+        @DataAmount
+        public long jarSize;
+
+        @Label("Main Package")
+        public String mainPackage;
+
+        @Label("From Index")
+        @Description("Whether the plugin index answered without opening the jar")
+        public boolean fromIndex;
+
+        @Label("Provider")
+        @Description("The ConfigManifest class the jar declares in META-INF/services or its module-info")
+        public String provider;
+
+        @Label("Has Manifest")
+        @Description("Whether the jar ships a ConfigManifest")
+        public boolean hasManifest;
+    }
+
+    @Name("com.copperpenguin96.spigotconfig.ManifestConstructed")
+    @Label("Config Manifest Constructed")
+    @Category({"Spigot Config", "Plugins"})
+    @Description("A plugin's SpigotConfig was created, which builds its eager tabs")
+    @StackTrace(false)
+    public static final class ManifestConstructed extends Event {
+        @Label("Plugin")
+        @Description("File name of the plugin's jar")
+        public String plugin;
+
+        @Label("Manifest Class")
+        public String manifestClass;
+
+        @Label("Tabs")
+        @Description("How many tabs the plugin registered, built or lazy")
+        public int tabs;
+    }
+
+    @Name("com.copperpenguin96.spigotconfig.TabSceneLoaded")
+    @Label("Config Tab Scene Loaded")
+    @Category({"Spigot Config", "Plugins"})
+    @Description("A plugin tab's fxml was loaded into a scene")
+    @StackTrace(false)
+    public static final class TabSceneLoaded extends Event {
+        @Label("Tab")
+        public String tab;
+
+        @Label("Tab Class")
+        public String tabClass;
+
+        @Label("FXML Size")
+        @DataAmount
+        public long fxmlSize;
+
+        @Label("Controls")
+        public int controls;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    @Name("com.copperpenguin96.spigotconfig.ManifestSaved")
+    @Label("Config Manifest Saved")
+    @Category({"Spigot Config", "Plugins"})
+    @Description("A plugin's save() was called")
+    @StackTrace(false)
+    public static final class ManifestSaved extends Event {
+        @Label("Manifest Class")
+        public String manifestClass;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+
+        @Label("Error")
+        public String error;
+    }
+
+    @Name("com.copperpenguin96.spigotconfig.PropertiesWritten")
+    @Label("Properties File Written")
+    @Category({"Spigot Config", "Saving"})
+    @Description("A server.properties file was written")
+    @StackTrace(false)
+    public static final class PropertiesWritten extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Bytes Written")
+        @DataAmount
+        public long bytes;
+
+        @Label("Backup")
+        @Description("Whether the previous file was kept as server.properties.bak")
+        public boolean backup;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+}
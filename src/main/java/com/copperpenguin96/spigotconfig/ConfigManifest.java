@@ -6,28 +6,82 @@ import javafx.scene.Scene;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.function.Supplier;
 
 /**
  * The base for manifests to be searched for in plugins. Allows for a storage space for all the tabs provided by the plugins.
  */
 public abstract class ConfigManifest {
 
-    /// Stores all the tabs created by the plugin.
-    private ArrayList<ConfigTab> _tabs = new ArrayList<>();
+    /// Stores all the tabs registered by the plugin, built or not.
+    private ArrayList<TabDescriptor> _tabs = new ArrayList<>();
+
+    /// The list handed out by getTabs(), null until a plugin asks for it.
+    private ArrayList<ConfigTab> _legacyTabs;
 
     /**
-     * Gets all the tabs created by the plugin.
-     * @return
+     * Gets all the tabs created by the plugin. Tabs registered lazily are built the first time this is called, so
+     * every tab is included. The list is live: tabs added to or removed from it are picked up by the GUI.
+     * @return The tabs.
+     * @deprecated Builds every lazy tab. Use {@link #getTabDescriptors()} and only build the tabs that are needed.
      */
+    @Deprecated
     public ArrayList<ConfigTab> getTabs() {
+        if (_legacyTabs == null) {
+            _legacyTabs = new ArrayList<>();
+            for (TabDescriptor descriptor : _tabs) {
+                _legacyTabs.add(descriptor.get());
+            }
+        }
+        return _legacyTabs;
+    }
+
+    /**
+     * Gets all the tabs registered by the plugin, including ones that haven't been built yet.
+     * @return The tab descriptors.
+     */
+    public ArrayList<TabDescriptor> getTabDescriptors() {
+        if (_legacyTabs != null) {
+            // The plugin may have changed the list from getTabs(), which is the one that counts from then on.
+            ArrayList<TabDescriptor> descriptors = new ArrayList<>();
+            for (ConfigTab tab : _legacyTabs) {
+                descriptors.add(findDescriptor(tab));
+            }
+            _tabs.clear();
+            _tabs.addAll(descriptors);
+        }
         return _tabs;
     }
 
+    /**
+     * Finds the descriptor of a built tab, or creates one for a tab added through getTabs().
+     * @param tab The tab.
+     */
+    private TabDescriptor findDescriptor(ConfigTab tab) {
+        for (TabDescriptor descriptor : _tabs) {
+            if (descriptor.getIfLoaded() == tab) return descriptor;
+        }
+        return new TabDescriptor(tab);
+    }
+
     /**
      * Adds a tab to be loaded and handled by the GUI.
      */
     protected void add(ConfigTab tab) {
-        _tabs.add(tab);
+        _tabs.add(new TabDescriptor(tab));
+        if (_legacyTabs != null) _legacyTabs.add(tab);
+    }
+
+    /**
+     * Adds a tab that is only built, scene and all, the first time the user opens it. Once getTabs() has been
+     * called the tab is built right away, to be in its list.
+     * @param name The name shown to the end user.
+     * @param factory Creates the tab.
+     */
+    protected void add(String name, Supplier<? extends ConfigTab> factory) {
+        TabDescriptor descriptor = new TabDescriptor(name, factory);
+        _tabs.add(descriptor);
+        if (_legacyTabs != null) _legacyTabs.add(descriptor.get());
     }
 
     /// Saves the plugin's configs in their own ways.
@@ -8,16 +8,30 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Accordion;
 import javafx.scene.control.Control;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.SplitPane;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.TitledPane;
+import javafx.scene.control.ToolBar;
 import javafx.scene.input.MouseEvent;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Tab created by the plugin.
@@ -26,7 +40,7 @@ public abstract class ConfigTab {
     /// The name of the tab
     public String Name;
 
-    /// All the controls needed for the tab.
+    /// All the controls of the tab's fxml, nested ones included, in document order.
     public ArrayList<Control> Controls;
 
     public Scene Scene;
@@ -45,52 +59,236 @@ public abstract class ConfigTab {
         return _changesMade;
     }
 
+    /**
+     * An event handler waiting for the control it belongs to.
+     * @param type The type of event.
+     * @param handler The handler.
+     */
+    private record Binding<T extends Event>(EventType<T> type, EventHandler<? super T> handler) {
+
+        @SuppressWarnings("unchecked")
+        private void bind(Object target) {
+            if (target instanceof Node node) {
+                node.addEventHandler(type, handler);
+            } else if (target instanceof MenuItem item) {
+                // Menu items want the exact handler type, which the handler can take by definition.
+                item.addEventHandler(type, (EventHandler<T>) handler);
+            }
+        }
+    }
+
+    /// The event handlers registered with addEvent, by fx:id, in the order they were added.
+    private final HashMap<String, ArrayList<Binding<?>>> _bindings = new HashMap<>();
+
+    /// Handlers plugins put here directly are still bound when the scene is set, with the type at the same position in
+    /// {@link #TypeRegistry}. Kept so plugins built against older versions still load.
+    /// @deprecated Use {@link #addEvent(String, EventType, EventHandler)}, which doesn't fill this.
+    @Deprecated
     protected HashMap<String, EventHandler> EventRegistry = new HashMap<>();
+
+    /// The event types of {@link #EventRegistry}, by position.
+    /// @deprecated Use {@link #addEvent(String, EventType, EventHandler)}, which doesn't fill this.
+    @Deprecated
     protected ArrayList<EventType> TypeRegistry = new ArrayList<>();
 
+    /// Everything in the scene with an fx:id, in document order, filled when the scene is loaded.
+    private final LinkedHashMap<String, Object> _index = new LinkedHashMap<>();
+
+    /// The root of the tab's fxml, which stays the same when it's moved out of its scene.
+    private Parent _root;
+
+    /// The fx:ids of the loaded fxml, including things that aren't in the scene graph until they're shown.
+    private Map<String, Object> _namespace;
+
     Class<?> typeClass;
     protected void setClass(Class<?> cls) {
         typeClass = cls;
     }
 
     protected void setScene(InputStream stream) {
+        ConfigEvents.TabSceneLoaded event = new ConfigEvents.TabSceneLoaded();
+        event.begin();
         try {
-            Scene = getSceneFromResources(stream);
+            // Read up front so flight recordings can show how big the fxml was.
+            byte[] fxml = stream.readAllBytes();
+            event.fxmlSize = fxml.length;
+
+            Scene = getSceneFromResources(new ByteArrayInputStream(fxml));
             Controls = new ArrayList<>();
             proliferateScene();
+            event.succeeded = true;
         } catch (Exception ex) {
             ex.printStackTrace();
             return;
+        } finally {
+            if (event.shouldCommit()) {
+                event.tab = Name;
+                event.tabClass = getClass().getName();
+                event.controls = Controls == null ? 0 : Controls.size();
+                event.commit();
+            }
         }
     }
 
     protected Scene getSceneFromResources(InputStream stream) throws IOException {
         FXMLLoader loader = new FXMLLoader();
         loader.setController(typeClass);
-        return new Scene(loader.load(stream));
+        Scene scene = new Scene(loader.load(stream));
+        _namespace = loader.getNamespace();
+        return scene;
     }
 
     private void proliferateScene() {
-        Parent root = Scene.getRoot();
-        for (Node child : root.getChildrenUnmodifiable()) {
-            Control childCtrl = (Control)child;
+        _root = Scene.getRoot();
+        indexScene(_root);
+        for (Map.Entry<String, ArrayList<Binding<?>>> bindings : _bindings.entrySet()) {
+            Object target = _index.get(bindings.getKey());
+            if (target == null) {
+                System.out.println("Tab " + Name + " has events for " + bindings.getKey() + ", but no control has that fx:id");
+                continue;
+            }
+
+            for (Binding<?> binding : bindings.getValue()) {
+                binding.bind(target);
+            }
+        }
+        bindRegistry();
+    }
 
-            // lookup events
-            for (int x = 0; x < EventRegistry.size(); x++) {
-                String key = EventRegistry.keySet().toArray()[x].toString();
+    /**
+     * Binds the handlers of {@link #EventRegistry}, paired with their types the way older versions did.
+     */
+    @SuppressWarnings({"deprecation", "unchecked", "rawtypes"})
+    private void bindRegistry() {
+        int x = 0;
+        for (Map.Entry<String, EventHandler> entry : EventRegistry.entrySet()) {
+            if (x >= TypeRegistry.size()) {
+                System.out.println("Tab " + Name + " has no event type for " + entry.getKey());
+                break;
+            }
 
-                if (key.equals(childCtrl.getId())) {
-                    EventHandler handler = (EventHandler)EventRegistry.values().toArray()[x];
-                    childCtrl.addEventHandler(TypeRegistry.get(x), handler);
+            Object target = _index.get(entry.getKey());
+            if (target == null) {
+                System.out.println("Tab " + Name + " has events for " + entry.getKey() + ", but no control has that fx:id");
+            } else {
+                new Binding(TypeRegistry.get(x), entry.getValue()).bind(target);
+            }
+            x++;
+        }
+    }
+
+    /**
+     * Indexes everything in the scene by fx:id and collects its controls, visiting each node once. Like Scene.lookup,
+     * the first in document order wins when an id is used twice.
+     * @param root The root of the scene.
+     */
+    private void indexScene(Parent root) {
+        _index.clear();
+
+        ArrayDeque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (node.getId() != null) _index.putIfAbsent(node.getId(), node);
+            if (node instanceof Control control) Controls.add(control);
+
+            List<Node> children = childrenOf(node);
+            for (int x = children.size() - 1; x >= 0; x--) {
+                pending.push(children.get(x));
+            }
+        }
+
+        // Scroll pane and tab content, menu items and the like only join the scene graph once they're shown.
+        if (_namespace != null) {
+            for (Map.Entry<String, Object> entry : _namespace.entrySet()) {
+                if (entry.getValue() instanceof Node || entry.getValue() instanceof MenuItem) {
+                    _index.putIfAbsent(entry.getKey(), entry.getValue());
                 }
             }
+        }
+    }
+
+    /**
+     * Gets what a node holds, as written in the fxml. Containers like scroll panes keep their content outside of
+     * their children until they're shown, and the children of other controls belong to their skin.
+     */
+    private static List<Node> childrenOf(Node node) {
+        if (node instanceof ScrollPane scroll) return scroll.getContent() == null ? List.of() : List.of(scroll.getContent());
+        if (node instanceof TitledPane titled) return titled.getContent() == null ? List.of() : List.of(titled.getContent());
+        if (node instanceof Accordion accordion) return new ArrayList<>(accordion.getPanes());
+        if (node instanceof SplitPane split) return split.getItems();
+        if (node instanceof ToolBar toolBar) return toolBar.getItems();
+        if (node instanceof TabPane tabPane) {
+            ArrayList<Node> content = new ArrayList<>();
+            for (Tab tab : tabPane.getTabs()) {
+                if (tab.getContent() != null) content.add(tab.getContent());
+            }
+            return content;
+        }
+        if (node instanceof Control) return List.of();
+        if (node instanceof Parent parent) return parent.getChildrenUnmodifiable();
+        return List.of();
+    }
+
+    /**
+     * Gets the root of the tab's fxml. The application moves it into its own window, so it may no longer be the root
+     * of {@link #Scene}.
+     * @return The root, or null if the scene hasn't been loaded.
+     */
+    public Parent getRoot() {
+        return _root;
+    }
+
+    /**
+     * Finds a node of the tab's fxml by its fx:id.
+     * @param id The fx:id.
+     * @return The node, or null if there's none with that id.
+     */
+    public Node lookup(String id) {
+        return _index.get(id) instanceof Node node ? node : null;
+    }
 
-            Controls.add(childCtrl);
+    /**
+     * Finds a node, or menu item, of the tab's fxml by its fx:id.
+     * Example: {@code TextField txtName = lookup("txtName", TextField.class);}
+     * @param id The fx:id.
+     * @param type What it is.
+     * @return The node, or null if there's none with that id.
+     * @throws IllegalArgumentException Will throw if the node with that id is something else.
+     */
+    public <T> T lookup(String id, Class<T> type) {
+        Object found = _index.get(id);
+        if (found == null) return null;
+        if (!type.isInstance(found)) {
+            throw new IllegalArgumentException(id + " is a " + found.getClass().getSimpleName() + ", not a " + type.getSimpleName());
         }
+        return type.cast(found);
     }
 
-    protected void addEvent(String controlName, EventType eveType, EventHandler handler) {
-        EventRegistry.put(controlName, handler);
-        TypeRegistry.add(eveType);
+    /**
+     * Gets every node of the tab's fxml that has an fx:id.
+     * @return The nodes by fx:id, in document order.
+     */
+    public Map<String, Node> getNodes() {
+        LinkedHashMap<String, Node> nodes = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : _index.entrySet()) {
+            if (entry.getValue() instanceof Node node) nodes.put(entry.getKey(), node);
+        }
+        return Collections.unmodifiableMap(nodes);
+    }
+
+    /**
+     * Handles an event of a control in the tab's fxml. A control can have any number of handlers, for the same or
+     * different events. Best called before the scene is set, handlers added afterwards are bound right away.
+     * @param controlName The fx:id of the control.
+     * @param eveType The type of event.
+     * @param handler The handler.
+     */
+    protected <T extends Event> void addEvent(String controlName, EventType<T> eveType, EventHandler<? super T> handler) {
+        Binding<T> binding = new Binding<>(eveType, handler);
+        _bindings.computeIfAbsent(controlName, key -> new ArrayList<>()).add(binding);
+
+        Object target = _index.get(controlName);
+        if (target != null) binding.bind(target);
     }
 }
@@ -0,0 +1,251 @@
+package com.copperpenguin96.spigotconfig;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Finds the names of the datapacks installed on the server. Packs are read in parallel, their pack.mcmeta is
+ * streamed instead of loaded whole, and names are cached on disk so unchanged packs only cost a stat.
+ */
+public class DatapackCatalog {
+
+    /// Where the cache is kept, relative to the server's root directory.
+    public static final Path DEFAULT_LOCATION = Path.of(".spigotconfig", "datapack-index.bin");
+
+    /// Identifies the file as a datapack cache.
+    private static final int MAGIC = 0x53434450; // SCDP
+
+    /// Bumped whenever the layout of the file changes, older files are thrown away.
+    private static final int VERSION = 1;
+
+    /**
+     * What is remembered about a single pack.
+     * @param size The size of the zip, or of pack.mcmeta for folders.
+     * @param modified The last modified time of the zip, or of pack.mcmeta for folders.
+     * @param name The name of the pack.
+     */
+    private record Entry(long size, long modified, String name) { }
+
+    /// The file the cache is read from and written to.
+    private final Path _location;
+
+    /// The cached names, keyed by the pack's path.
+    private final Map<String, Entry> _entries = new ConcurrentHashMap<>();
+
+    /// Set when something was added or removed since the cache was read.
+    private volatile boolean _dirty = false;
+
+    public DatapackCatalog() {
+        this(DEFAULT_LOCATION);
+    }
+
+    /**
+     * @param location Where the cache is kept.
+     */
+    public DatapackCatalog(Path location) {
+        _location = location;
+        readCache();
+    }
+
+    /**
+     * Reads the names of all datapacks in the specified folder. Files that aren't datapacks are skipped.
+     * @param dir The datapacks folder.
+     * @return The names, in the order the packs are listed in the folder.
+     */
+    public List<String> scan(File dir) {
+        File[] files = dir.listFiles();
+        ArrayList<String> names = new ArrayList<>();
+        if (files == null) return names;
+
+        ArrayList<Future<String>> results = new ArrayList<>();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (File file : files) {
+                results.add(workers.submit(() -> getName(file)));
+            }
+        }
+
+        for (int x = 0; x < files.length; x++) {
+            try {
+                String name = results.get(x).get();
+                if (name != null) names.add(name);
+            } catch (ExecutionException e) {
+                System.out.println("Unable to load datapack " + files[x].getName());
+                e.getCause().printStackTrace();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        // Forget packs that were removed.
+        ArrayList<String> paths = new ArrayList<>();
+        for (File file : files) {
+            paths.add(file.getAbsolutePath());
+        }
+        if (_entries.keySet().retainAll(paths)) _dirty = true;
+
+        saveCache();
+        return names;
+    }
+
+    /**
+     * Gets the datapack name of the specified file, from the cache if it hasn't changed.
+     * @param file The zip or folder of the pack.
+     * @return The name, or null if it isn't a datapack.
+     * @throws IOException Will throw if issue with the file.
+     */
+    private String getName(File file) throws IOException {
+        File stamp = file;
+        if (file.isDirectory()) {
+            stamp = new File(file, "pack.mcmeta");
+            if (!stamp.isFile()) return null;
+        } else if (!file.getName().endsWith(".zip")) {
+            return null;
+        }
+
+        String key = file.getAbsolutePath();
+        long size = stamp.length();
+        long modified = stamp.lastModified();
+
+        Entry entry = _entries.get(key);
+        if (entry != null && entry.size() == size && entry.modified() == modified) return entry.name();
+
+        String name = readName(file);
+        if (name != null) {
+            _entries.put(key, new Entry(size, modified, name));
+            _dirty = true;
+        }
+        return name;
+    }
+
+    /**
+     * Reads the name out of the pack's pack.mcmeta.
+     */
+    private static String readName(File file) throws IOException {
+        if (file.isDirectory()) {
+            try (InputStream stream = Files.newInputStream(new File(file, "pack.mcmeta").toPath())) {
+                return readName(stream);
+            }
+        }
+
+        // Find the pack.mcmeta file in the zip archive and read it for the name.
+        try (ZipFile pack = new ZipFile(file)) {
+            ZipEntry meta = pack.getEntry("pack.mcmeta");
+            if (meta == null) return null;
+
+            try (InputStream stream = pack.getInputStream(meta)) {
+                return readName(stream);
+            }
+        }
+    }
+
+    /**
+     * Streams pack.mcmeta looking for pack.description.translate, skipping everything else.
+     * @param stream The contents of pack.mcmeta.
+     * @return The name, or null if it doesn't have one.
+     */
+    private static String readName(InputStream stream) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        reader.setLenient(true);
+
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) return null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!reader.nextName().equals("pack") || reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals("description") || reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    reader.skipValue();
+                    continue;
+                }
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals("translate") && reader.peek() == JsonToken.STRING) {
+                        return reader.nextString();
+                    }
+                    reader.skipValue();
+                }
+                reader.endObject();
+            }
+            reader.endObject();
+        }
+
+        return null;
+    }
+
+    private void readCache() {
+        if (!Files.isRegularFile(_location)) return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(_location)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return;
+
+            int count = in.readInt();
+            for (int x = 0; x < count; x++) {
+                String key = in.readUTF();
+                _entries.put(key, new Entry(in.readLong(), in.readLong(), in.readUTF()));
+            }
+        } catch (IOException e) {
+            System.out.println("Unable to read datapack cache, rescanning all datapacks");
+            _entries.clear();
+        }
+    }
+
+    private synchronized void saveCache() {
+        if (!_dirty) return;
+        // Cleared first, so anything recorded while writing is saved next time.
+        _dirty = false;
+
+        // A copy, so the count matches the entries even if more are recorded meanwhile.
+        HashMap<String, Entry> entries = new HashMap<>(_entries);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(entries.size());
+
+                for (Map.Entry<String, Entry> pair : entries.entrySet()) {
+                    out.writeUTF(pair.getKey());
+                    out.writeLong(pair.getValue().size());
+                    out.writeLong(pair.getValue().modified());
+                    out.writeUTF(pair.getValue().name());
+                }
+            }
+
+            Files.createDirectories(_location.getParent());
+            AtomicWriter.write(_location, bytes.toByteArray());
+        } catch (IOException e) {
+            _dirty = true;
+            System.out.println("Unable to save datapack cache");
+            e.printStackTrace();
+        }
+    }
+}
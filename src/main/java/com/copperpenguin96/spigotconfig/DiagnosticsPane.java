@@ -0,0 +1,177 @@
+package com.copperpenguin96.spigotconfig;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.scene.control.*;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Shows what opening the window spent its time on, from the spans of {@link StartupTrace}. The slowest come first,
+ * so a plugin that holds up the start stands out. Below them, how long each plugin's calls took and which plugins
+ * were quarantined by the {@link PluginSupervisor}.
+ */
+public class DiagnosticsPane extends BorderPane {
+
+    /// One row per span.
+    private final TableView<StartupTrace.Span> _table = new TableView<>();
+
+    /// One row per plugin and operation.
+    private final TableView<PluginSupervisor.Latency> _plugins = new TableView<>();
+
+    /// Shows the total and the slowest plugin.
+    private final Label _lblSummary = new Label();
+
+    /// Where the plugin latencies come from.
+    private final PluginSupervisor _supervisor;
+
+    /**
+     * @param supervisor The supervisor running the plugins.
+     */
+    public DiagnosticsPane(PluginSupervisor supervisor) {
+        _supervisor = supervisor;
+
+        Button btnRefresh = new Button("Refresh");
+        btnRefresh.setOnAction(event -> refresh());
+        Button btnExport = new Button("Export JSON...");
+        btnExport.setOnAction(event -> export());
+        Button btnRelease = new Button("Release plugin");
+        btnRelease.setOnAction(event -> release());
+
+        HBox toolbar = new HBox(8, btnRefresh, btnExport, btnRelease, _lblSummary);
+        toolbar.setPadding(new Insets(8));
+        setTop(toolbar);
+
+        TableColumn<StartupTrace.Span, String> category = new TableColumn<>("Category");
+        category.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().category()));
+        TableColumn<StartupTrace.Span, String> name = new TableColumn<>("Name");
+        name.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().name()));
+        name.setPrefWidth(220);
+        TableColumn<StartupTrace.Span, String> thread = new TableColumn<>("Thread");
+        thread.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().thread()));
+        TableColumn<StartupTrace.Span, Double> start = new TableColumn<>("Start (ms)");
+        start.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(millis(cell.getValue().start())));
+        TableColumn<StartupTrace.Span, Double> duration = new TableColumn<>("Duration (ms)");
+        duration.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(millis(cell.getValue().duration())));
+        duration.setSortType(TableColumn.SortType.DESCENDING);
+
+        _table.getColumns().setAll(List.of(category, name, thread, start, duration));
+        _table.getSortOrder().setAll(List.of(duration));
+
+        createPluginColumns();
+        SplitPane split = new SplitPane(_table, _plugins);
+        split.setOrientation(Orientation.VERTICAL);
+        setCenter(split);
+
+        refresh();
+    }
+
+    /**
+     * Creates the columns of the plugin table.
+     */
+    private void createPluginColumns() {
+        TableColumn<PluginSupervisor.Latency, String> plugin = new TableColumn<>("Plugin");
+        plugin.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().plugin()));
+        plugin.setPrefWidth(160);
+        TableColumn<PluginSupervisor.Latency, String> operation = new TableColumn<>("Call");
+        operation.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().operation().name().toLowerCase()));
+        TableColumn<PluginSupervisor.Latency, Long> calls = new TableColumn<>("Calls");
+        calls.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().histogram().getCount()));
+        TableColumn<PluginSupervisor.Latency, Long> failures = new TableColumn<>("Failed");
+        failures.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().histogram().getFailures()));
+        TableColumn<PluginSupervisor.Latency, Double> median = new TableColumn<>("p50 (ms)");
+        median.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(millis(cell.getValue().histogram().getPercentile(0.5))));
+        TableColumn<PluginSupervisor.Latency, Double> p95 = new TableColumn<>("p95 (ms)");
+        p95.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(millis(cell.getValue().histogram().getPercentile(0.95))));
+        TableColumn<PluginSupervisor.Latency, Double> max = new TableColumn<>("Max (ms)");
+        max.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(millis(cell.getValue().histogram().getMax())));
+        max.setSortType(TableColumn.SortType.DESCENDING);
+        TableColumn<PluginSupervisor.Latency, String> histogram = new TableColumn<>("Histogram");
+        histogram.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().histogram().toString()));
+        histogram.setPrefWidth(200);
+        TableColumn<PluginSupervisor.Latency, String> status = new TableColumn<>("Status");
+        status.setCellValueFactory(cell -> {
+            String reason = _supervisor.getQuarantined().get(cell.getValue().plugin());
+            return new ReadOnlyStringWrapper(reason == null ? "OK" : "Quarantined: " + reason);
+        });
+        status.setPrefWidth(220);
+
+        _plugins.getColumns().setAll(List.of(plugin, operation, calls, failures, median, p95, max, histogram, status));
+        _plugins.getSortOrder().setAll(List.of(max));
+        _plugins.setPlaceholder(new Label("No plugins have been called yet."));
+    }
+
+    /**
+     * Shows the spans recorded since it was last refreshed. Plugins finish in the background, so there may be more.
+     */
+    public void refresh() {
+        List<StartupTrace.Span> spans = StartupTrace.getSpans();
+        _table.getItems().setAll(spans);
+        _table.sort();
+        _plugins.getItems().setAll(_supervisor.getLatency());
+        _plugins.sort();
+
+        long end = 0;
+        StartupTrace.Span slowestPlugin = null;
+        for (StartupTrace.Span span : spans) {
+            end = Math.max(end, span.start() + span.duration());
+            if (span.category().equals("plugin") && (slowestPlugin == null || span.duration() > slowestPlugin.duration())) {
+                slowestPlugin = span;
+            }
+        }
+
+        String summary = String.format("%d spans, last one ended at %.1f ms", spans.size(), millis(end));
+        if (slowestPlugin != null) {
+            summary += String.format(", slowest plugin %s (%.1f ms)", slowestPlugin.name(), millis(slowestPlugin.duration()));
+        }
+        if (!_supervisor.getQuarantined().isEmpty()) {
+            summary += ", " + _supervisor.getQuarantined().size() + " quarantined";
+        }
+        _lblSummary.setText(summary);
+    }
+
+    /**
+     * Lets the selected plugin be called again, in case it was only slow once.
+     */
+    private void release() {
+        PluginSupervisor.Latency selected = _plugins.getSelectionModel().getSelectedItem();
+        if (selected == null) return;
+
+        _supervisor.release(selected.plugin());
+        refresh();
+    }
+
+    /**
+     * Asks where to save the spans and writes them in the Chrome trace format.
+     */
+    private void export() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export startup trace");
+        chooser.setInitialFileName("startup-trace.json");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON", "*.json"));
+        File file = chooser.showSaveDialog(getScene().getWindow());
+        if (file == null) return;
+
+        try {
+            StartupTrace.writeJson(file.toPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+            Alert failed = new Alert(Alert.AlertType.WARNING);
+            failed.setTitle("Export failed");
+            failed.setHeaderText("Unable to export");
+            failed.setContentText("Was unable to write " + file.getName() + ": " + e.getMessage());
+            failed.show();
+        }
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
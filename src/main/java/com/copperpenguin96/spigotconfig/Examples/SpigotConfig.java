@@ -6,9 +6,8 @@ import java.io.IOException;
 public class SpigotConfig extends ConfigManifest {
 
     public SpigotConfig() throws IOException {
-        ExampleTab exampleTab = new ExampleTab();
-
-        this.add(exampleTab);
+        // The tab is only built once the user opens it.
+        this.add("Example Tab", ExampleTab::new);
     }
 
     @Override
@@ -0,0 +1,102 @@
+package com.copperpenguin96.spigotconfig;
+
+import javafx.application.Platform;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches folders for changes made outside the application. Bursts of events (an editor saving, a tool copying
+ * several packs) are held until things go quiet and then handed over as one set of changed paths on the FX thread.
+ */
+public class FileWatcher implements AutoCloseable {
+
+    /// How long to wait for more events before reporting, by default.
+    public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(300);
+
+    private final WatchService _service;
+    private final Duration _debounce;
+
+    /// Called on the FX thread with the paths that changed.
+    private final Consumer<Set<Path>> _onChange;
+
+    /**
+     * @param debounce How long things have to be quiet before changes are reported.
+     * @param onChange Called on the FX thread with the paths that changed.
+     * @throws IOException Will throw if the file system can't be watched.
+     */
+    public FileWatcher(Duration debounce, Consumer<Set<Path>> onChange) throws IOException {
+        _service = FileSystems.getDefault().newWatchService();
+        _debounce = debounce;
+        _onChange = onChange;
+    }
+
+    /**
+     * Starts watching a folder. Only the folder itself is watched, not its sub folders.
+     * @param dir The folder.
+     * @throws IOException Will throw if the folder can't be watched.
+     */
+    public void watch(Path dir) throws IOException {
+        dir.register(_service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    /**
+     * Starts reporting changes in the background.
+     */
+    public void start() {
+        Thread.ofVirtual().name("file-watcher").start(this::run);
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                HashSet<Path> changed = new HashSet<>();
+                drain(_service.take(), changed);
+
+                // Keep collecting until nothing happens for a while.
+                WatchKey key;
+                while ((key = _service.poll(_debounce.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    drain(key, changed);
+                }
+
+                if (!changed.isEmpty()) {
+                    Platform.runLater(() -> _onChange.accept(changed));
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed, stop watching.
+        }
+    }
+
+    /**
+     * Collects the paths of a key's events and gets the key ready for more.
+     */
+    private static void drain(WatchKey key, Set<Path> changed) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path name) {
+                changed.add(dir.resolve(name));
+            } else if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.add(dir); // lost track, the whole folder may have changed
+            }
+        }
+        key.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        _service.close();
+    }
+}
@@ -0,0 +1,249 @@
+package com.copperpenguin96.spigotconfig;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Edits server.properties files without the GUI, so the application can be used from provisioning scripts.
+ * Directories are processed in parallel through a {@link BulkEdit}.
+ * <p>
+ * Example: {@code --set view-distance=8 --set motd=Hello --where level-type=minecraft:normal --dry-run --dirs servers/*}
+ */
+public class HeadlessCli {
+
+    /// The properties to set and which servers to set them on.
+    private final BulkEdit _edit = new BulkEdit();
+
+    /// Whether anything was given to set.
+    private boolean _hasChanges = false;
+
+    /// The server directories to edit.
+    private final ArrayList<Path> _dirs = new ArrayList<>();
+
+    /// Whether to only show what would change.
+    private boolean _dryRun = false;
+
+    /// Where to write the JSON report, - for standard output, or null for none.
+    private String _report = null;
+
+    /// Only created through run.
+    private HeadlessCli() { }
+
+    /**
+     * Checks if the arguments ask for headless mode.
+     * @param args The command line arguments.
+     * @return True if the GUI shouldn't be started.
+     */
+    public static boolean isHeadless(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--set") || arg.equals("--dirs") || arg.equals("--help")) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Runs the headless mode.
+     * @param args The command line arguments.
+     * @return The exit code, 0 if every directory was handled.
+     */
+    public static int run(String[] args) {
+        HeadlessCli cli = new HeadlessCli();
+        try {
+            if (!cli.parse(args)) {
+                printUsage();
+                return 2;
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            System.out.println(e.getMessage());
+            printUsage();
+            return 2;
+        }
+
+        return cli.apply();
+    }
+
+    /**
+     * Reads the arguments into the changes and directories to work on.
+     * @return False if there is nothing to do.
+     */
+    private boolean parse(String[] args) throws IOException {
+        for (int x = 0; x < args.length; x++) {
+            switch (args[x]) {
+                case "--set":
+                    String[] change = keyValue(args, x++);
+
+                    // Keys the schema doesn't know are written as they are.
+                    PropertyDef def = PropertySchema.VANILLA.get(change[0]);
+                    String problem = def == null ? null : def.validate(change[1]);
+                    if (problem != null) throw new IllegalArgumentException(change[0] + " " + problem);
+
+                    _edit.set(change[0], change[1]);
+                    _hasChanges = true;
+                    break;
+                case "--where":
+                    String[] filter = keyValue(args, x++);
+                    _edit.where(filter[0], filter[1]);
+                    break;
+                case "--dirs":
+                    // Everything up to the next option is a directory
+                    while (x + 1 < args.length && !args[x + 1].startsWith("--")) {
+                        _dirs.addAll(expandDirs(args[++x]));
+                    }
+                    break;
+                case "--backup":
+                    _edit.backup(true);
+                    break;
+                case "--dry-run":
+                    _dryRun = true;
+                    break;
+                case "--report":
+                    if (x + 1 >= args.length) throw new IllegalArgumentException("--report needs a file, or - for the console");
+                    _report = args[++x];
+                    break;
+                case "--jobs":
+                    if (x + 1 >= args.length) throw new IllegalArgumentException("--jobs needs a number");
+                    try {
+                        _edit.jobs(Integer.parseInt(args[++x]));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Not a number: " + args[x]);
+                    }
+                    break;
+                case "--help":
+                    return false;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[x]);
+            }
+        }
+
+        return _hasChanges && !_dirs.isEmpty();
+    }
+
+    /**
+     * Reads the key=value that follows an option.
+     * @return The key and the value.
+     */
+    private static String[] keyValue(String[] args, int option) {
+        if (option + 1 >= args.length) throw new IllegalArgumentException(args[option] + " needs a key=value");
+
+        String pair = args[option + 1];
+        int stop = pair.indexOf("=");
+        if (stop <= 0) throw new IllegalArgumentException("Not a key=value: " + pair);
+
+        return new String[] { pair.substring(0, stop), pair.substring(stop + 1) };
+    }
+
+    /**
+     * Expands a glob in the last part of a directory (like servers/*) when the shell didn't.
+     * @param arg The directory, possibly with a glob.
+     * @return The matching directories, or the directory itself if there was no glob.
+     * @throws IOException Will throw if the parent directory can't be listed.
+     */
+    static List<Path> expandDirs(String arg) throws IOException {
+        Path path = Path.of(arg);
+        String last = path.getFileName() == null ? "" : path.getFileName().toString();
+
+        if (!last.contains("*") && !last.contains("?") && !last.contains("[") && !last.contains("{")) {
+            return List.of(path);
+        }
+
+        ArrayList<Path> dirs = new ArrayList<>();
+        Path parent = path.getParent() == null ? Path.of(".") : path.getParent();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(parent, last)) {
+            for (Path dir : stream) {
+                if (Files.isDirectory(dir)) dirs.add(dir);
+            }
+        }
+        dirs.sort(null);
+        return dirs;
+    }
+
+    /**
+     * Previews the changes on every directory, and applies them unless it's a dry run.
+     * @return The exit code.
+     */
+    private int apply() {
+        long start = System.nanoTime();
+
+        // A report on the console replaces the usual output, so it can be piped.
+        boolean quiet = "-".equals(_report);
+
+        List<BulkEdit.Diff> diffs = _edit.preview(_dirs);
+        if (quiet) {
+            if (!_dryRun) diffs = _edit.apply(diffs);
+        } else if (_dryRun) {
+            for (BulkEdit.Diff diff : diffs) {
+                printDiff(diff);
+            }
+        } else {
+            diffs = _edit.apply(diffs);
+            for (BulkEdit.Diff diff : diffs) {
+                if (diff.status() == BulkEdit.Status.FAILED) System.out.println(diff.dir() + ": " + diff.error());
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        int changed = BulkEdit.count(diffs, _dryRun ? BulkEdit.Status.PENDING : BulkEdit.Status.WRITTEN);
+        int failed = BulkEdit.count(diffs, BulkEdit.Status.FAILED);
+        if (!quiet) System.out.printf("%d directories, %d %s, %d skipped, %d failed in %.3fs (%.0f files/s)%n",
+                _dirs.size(), changed, _dryRun ? "would change" : "changed", BulkEdit.count(diffs, BulkEdit.Status.SKIPPED),
+                failed, seconds, _dirs.size() / Math.max(seconds, 1e-9));
+
+        if (_report != null && !writeReport(diffs)) return 1;
+        return failed == 0 ? 0 : 1;
+    }
+
+    /**
+     * Prints what would change on a server.
+     */
+    private static void printDiff(BulkEdit.Diff diff) {
+        switch (diff.status()) {
+            case PENDING -> {
+                System.out.println(diff.dir() + " (" + diff.version() + ")");
+                for (BulkEdit.Change change : diff.changes()) {
+                    System.out.println("  " + change.key() + ": " + (change.before() == null ? "(not set)" : change.before())
+                            + " -> " + change.after());
+                }
+            }
+            case FAILED -> System.out.println(diff.dir() + ": " + diff.error());
+            default -> { }
+        }
+    }
+
+    /**
+     * Writes the JSON report to a file or the console.
+     * @return False if it couldn't be written.
+     */
+    private boolean writeReport(List<BulkEdit.Diff> diffs) {
+        try {
+            if (_report.equals("-")) {
+                Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+                BulkEdit.writeReport(diffs, out);
+                out.write(System.lineSeparator());
+                out.flush();
+            } else {
+                try (Writer out = Files.newBufferedWriter(Path.of(_report), StandardCharsets.UTF_8)) {
+                    BulkEdit.writeReport(diffs, out);
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println("Unable to write report " + _report);
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: --set <key>=<value> [--set <key>=<value> ...] [--where <key>=<value> ...] [--dry-run]");
+        System.out.println("       [--backup] [--jobs <count>] [--report <file>|-] --dirs <server dir> [<server dir> ...]");
+        System.out.println("Server directories may use a glob for their last part, like servers/*");
+        System.out.println("--where only changes servers that currently have that value, --dry-run only shows what would change.");
+    }
+}
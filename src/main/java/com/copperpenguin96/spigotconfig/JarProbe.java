@@ -0,0 +1,337 @@
+package com.copperpenguin96.spigotconfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.module.InvalidModuleDescriptorException;
+import java.lang.module.ModuleDescriptor;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Looks inside a plugin jar without building a class loader. Only the zip's central directory and a few small entries
+ * are read, which is enough to tell if the plugin declares a {@link ConfigManifest} provider, either in
+ * META-INF/services or with {@code provides ... with} in its module-info, or ships a SpigotConfig class in its main
+ * package.
+ */
+public final class JarProbe {
+
+    /**
+     * What the probe found.
+     * @param mainPackage The main package from plugin.yml, or null if the jar has no plugin.yml or it couldn't be read.
+     * @param hasSpigotConfig Whether there is a SpigotConfig class in the main package.
+     * @param provider The class the jar declares as its ConfigManifest provider, or null if it doesn't declare one.
+     */
+    public record Result(String mainPackage, boolean hasSpigotConfig, String provider) {
+
+        /**
+         * Whether the jar integrates with the application, one way or the other.
+         */
+        public boolean integrates() {
+            return hasSpigotConfig || provider != null;
+        }
+    }
+
+    /**
+     * Where an entry's data is in the jar.
+     */
+    private record Location(long offset, int method, long compressed, long size) { }
+
+    /// The service file plugins declare their manifest in, the same one ServiceLoader reads.
+    public static final String SERVICE_FILE = "META-INF/services/" + ConfigManifest.class.getName();
+
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+    private static final int LOCAL_SIGNATURE = 0x04034b50;
+
+    /// Size of the end of central directory record, without its comment.
+    private static final int END_SIZE = 22;
+
+    /// Size of the fixed part of a central directory entry.
+    private static final int CENTRAL_SIZE = 46;
+
+    /// Size of the fixed part of a local file header.
+    private static final int LOCAL_SIZE = 30;
+
+    /// plugin.yml files bigger than this aren't worth a custom read, let the class loader handle them.
+    private static final int MAX_PLUGIN_YML = 1024 * 1024;
+
+    /// Service and module descriptors bigger than this aren't worth a custom read either.
+    private static final int MAX_DESCRIPTOR = 64 * 1024;
+
+    private static final byte[] PLUGIN_YML = "plugin.yml".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SPIGOT_CONFIG = "/SpigotConfig.class".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SERVICES = SERVICE_FILE.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MODULE_INFO = "module-info.class".getBytes(StandardCharsets.US_ASCII);
+
+    private JarProbe() { }
+
+    /**
+     * Probes the specified jar.
+     * @param jar The jar file.
+     * @return What was found, or null if the jar couldn't be probed this way (zip64, unusual plugin.yml, etc.)
+     * and the caller should fall back to a class loader.
+     * @throws IOException Will throw if the jar can't be read.
+     */
+    public static Result probe(File jar) throws IOException {
+        try (FileChannel channel = FileChannel.open(jar.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < END_SIZE) return null;
+
+            // The end record sits at the end of the file, behind an optional comment of up to 64k.
+            int tailSize = (int) Math.min(fileSize, END_SIZE + 0xFFFF);
+            ByteBuffer tail = read(channel, fileSize - tailSize, tailSize);
+            int end = -1;
+            for (int x = tailSize - END_SIZE; x >= 0; x--) {
+                if (tail.getInt(x) == END_SIGNATURE) {
+                    end = x;
+                    break;
+                }
+            }
+            if (end < 0) return null;
+
+            long centralSize = Integer.toUnsignedLong(tail.getInt(end + 12));
+            long centralOffset = Integer.toUnsignedLong(tail.getInt(end + 16));
+            if (centralSize == 0xFFFFFFFFL || centralOffset == 0xFFFFFFFFL) return null; // zip64
+            if (centralOffset + centralSize > fileSize) return null;
+
+            if (centralSize > Integer.MAX_VALUE) return null;
+
+            // Read rather than mapped, a mapping keeps the jar open until it's collected and Windows won't replace it.
+            ByteBuffer central = read(channel, centralOffset, (int) centralSize);
+
+            Location yml = null;
+            Location services = null;
+            Location moduleInfo = null;
+            HashSet<String> configPackages = new HashSet<>();
+
+            int pos = 0;
+            while (pos + CENTRAL_SIZE <= centralSize && central.getInt(pos) == CENTRAL_SIGNATURE) {
+                int nameLength = Short.toUnsignedInt(central.getShort(pos + 28));
+                int extraLength = Short.toUnsignedInt(central.getShort(pos + 30));
+                int commentLength = Short.toUnsignedInt(central.getShort(pos + 32));
+                int name = pos + CENTRAL_SIZE;
+
+                if (matches(central, name, nameLength, PLUGIN_YML)) {
+                    yml = locate(central, pos);
+                } else if (matches(central, name, nameLength, SERVICES)) {
+                    services = locate(central, pos);
+                } else if (matches(central, name, nameLength, MODULE_INFO)) {
+                    moduleInfo = locate(central, pos);
+                } else if (endsWith(central, name, nameLength, SPIGOT_CONFIG)) {
+                    configPackages.add(packageOf(central, name, nameLength - SPIGOT_CONFIG.length));
+                }
+
+                pos = name + nameLength + extraLength + commentLength;
+            }
+
+            // A declared provider beats the naming convention, and doesn't need plugin.yml.
+            String provider = null;
+            if (services != null) {
+                byte[] data = readEntry(channel, services, MAX_DESCRIPTOR);
+                if (data == null) return null;
+                provider = readProvider(data);
+            }
+            if (provider == null && moduleInfo != null) {
+                byte[] data = readEntry(channel, moduleInfo, MAX_DESCRIPTOR);
+                if (data == null) return null;
+                provider = readModuleProvider(data);
+            }
+
+            if (yml == null) return new Result(null, false, provider);
+
+            byte[] data = readEntry(channel, yml, MAX_PLUGIN_YML);
+            String mainPackage = data == null ? null : readMainPackage(data);
+            if (mainPackage == null) {
+                // Can't tell from plugin.yml, which only matters if nothing was declared.
+                return provider == null ? null : new Result(null, false, provider);
+            }
+
+            return new Result(mainPackage, configPackages.contains(mainPackage), provider);
+        }
+    }
+
+    /**
+     * Reads where a central directory entry's data is.
+     * @param central The central directory.
+     * @param pos Where the entry starts.
+     */
+    private static Location locate(ByteBuffer central, int pos) {
+        return new Location(Integer.toUnsignedLong(central.getInt(pos + 42)), Short.toUnsignedInt(central.getShort(pos + 10)),
+                Integer.toUnsignedLong(central.getInt(pos + 20)), Integer.toUnsignedLong(central.getInt(pos + 24)));
+    }
+
+    /**
+     * Reads an entry of the jar, unless it's too big.
+     * @return The entry's bytes, or null if it's too big or can't be read this way.
+     */
+    private static byte[] readEntry(FileChannel channel, Location location, int max) throws IOException {
+        if (location.size() > max || location.compressed() > max) return null;
+        return readEntry(channel, location.offset(), location.method(), (int) location.compressed(), (int) location.size());
+    }
+
+    /**
+     * Finds the first provider named in a service file. Like ServiceLoader, blank lines and anything after a # are
+     * ignored.
+     * @param data The contents of the service file.
+     * @return The provider's class name, or null if it names none.
+     */
+    static String readProvider(byte[] data) {
+        for (String line : new String(data, StandardCharsets.UTF_8).split("\\R")) {
+            int comment = line.indexOf('#');
+            if (comment >= 0) line = line.substring(0, comment);
+            line = line.strip();
+            if (!line.isEmpty()) return line;
+        }
+        return null;
+    }
+
+    /**
+     * Finds the ConfigManifest provider a module declares with {@code provides ... with}.
+     * @param data The compiled module-info.
+     * @return The provider's class name, or null if the module doesn't provide one or can't be read.
+     */
+    private static String readModuleProvider(byte[] data) {
+        try {
+            ModuleDescriptor descriptor = ModuleDescriptor.read(ByteBuffer.wrap(data));
+            for (ModuleDescriptor.Provides provides : descriptor.provides()) {
+                if (provides.service().equals(ConfigManifest.class.getName())) return provides.providers().get(0);
+            }
+            return null;
+        } catch (InvalidModuleDescriptorException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads and, if needed, inflates a single entry of the jar.
+     * @return The entry's bytes, or null if it uses an unsupported compression method.
+     */
+    private static byte[] readEntry(FileChannel channel, long offset, int method, int compressed, int size) throws IOException {
+        ByteBuffer local = read(channel, offset, LOCAL_SIZE);
+        if (local.getInt(0) != LOCAL_SIGNATURE) return null;
+
+        int nameLength = Short.toUnsignedInt(local.getShort(26));
+        int extraLength = Short.toUnsignedInt(local.getShort(28));
+        ByteBuffer data = read(channel, offset + LOCAL_SIZE + nameLength + extraLength, compressed);
+
+        if (method == 0) {
+            byte[] bytes = new byte[compressed];
+            data.get(bytes);
+            return bytes;
+        }
+
+        if (method != 8) return null;
+
+        Inflater inflater = new Inflater(true);
+        try {
+            byte[] bytes = new byte[size];
+            inflater.setInput(data);
+            int total = 0;
+            while (total < size && !inflater.finished()) {
+                int count = inflater.inflate(bytes, total, size - total);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                total += count;
+            }
+            return total == size ? bytes : null;
+        } catch (DataFormatException e) {
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Finds the top level main: key of a plugin.yml and returns the package of the class it names. Only plain and
+     * quoted scalars are understood, anything fancier returns null.
+     * @param yml The contents of plugin.yml.
+     * @return The main package, or null if it couldn't be found.
+     */
+    private static String readMainPackage(byte[] yml) {
+        int pos = 0;
+        while (pos < yml.length) {
+            int lineEnd = pos;
+            while (lineEnd < yml.length && yml[lineEnd] != '\n' && yml[lineEnd] != '\r') lineEnd++;
+
+            if (lineEnd - pos > 5 && yml[pos] == 'm' && yml[pos + 1] == 'a' && yml[pos + 2] == 'i'
+                    && yml[pos + 3] == 'n' && yml[pos + 4] == ':') {
+                return packageOfValue(yml, pos + 5, lineEnd);
+            }
+
+            pos = lineEnd + 1;
+        }
+
+        return null;
+    }
+
+    /**
+     * Takes the value of a main: line and strips it down to the package.
+     */
+    private static String packageOfValue(byte[] yml, int start, int end) {
+        while (start < end && (yml[start] == ' ' || yml[start] == '\t')) start++;
+
+        // Cut off comments
+        for (int x = start; x < end; x++) {
+            if (yml[x] == '#' && x > start && (yml[x - 1] == ' ' || yml[x - 1] == '\t')) {
+                end = x;
+                break;
+            }
+        }
+        while (end > start && (yml[end - 1] == ' ' || yml[end - 1] == '\t')) end--;
+
+        if (end - start >= 2 && (yml[start] == '"' || yml[start] == '\'') && yml[end - 1] == yml[start]) {
+            start++;
+            end--;
+        }
+        if (start == end) return null;
+
+        String mainClass = new String(yml, start, end - start, StandardCharsets.UTF_8);
+        for (int x = 0; x < mainClass.length(); x++) {
+            char c = mainClass.charAt(x);
+            if (c != '.' && c != '$' && !Character.isJavaIdentifierPart(c)) return null;
+        }
+
+        int lastDot = mainClass.lastIndexOf(".");
+        if (lastDot <= 0) return null;
+        return mainClass.substring(0, lastDot);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of jar");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static boolean matches(ByteBuffer buffer, int start, int length, byte[] expected) {
+        if (length != expected.length) return false;
+        return endsWith(buffer, start, length, expected);
+    }
+
+    private static boolean endsWith(ByteBuffer buffer, int start, int length, byte[] expected) {
+        if (length < expected.length) return false;
+
+        int offset = start + length - expected.length;
+        for (int x = 0; x < expected.length; x++) {
+            if (buffer.get(offset + x) != expected[x]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Turns the directory part of an entry name into a package name.
+     */
+    private static String packageOf(ByteBuffer buffer, int start, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8).replace('/', '.');
+    }
+}
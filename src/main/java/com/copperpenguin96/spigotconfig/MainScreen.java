@@ -1,29 +1,19 @@
 package com.copperpenguin96.spigotconfig;
 
 import com.copperpenguin96.spigotconfig.Examples.SpigotConfig;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.Initializable;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Parent;
 import javafx.scene.control.*;
-import javafx.scene.control.SpinnerValueFactory.IntegerSpinnerValueFactory;
-import javafx.scene.layout.AnchorPane;
-import org.yaml.snakeyaml.Yaml;
-import org.yaml.snakeyaml.error.YAMLException;
 
 import java.io.*;
-import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLClassLoader;
 import java.nio.file.Files;
-import java.text.SimpleDateFormat;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 public class MainScreen implements Initializable {
 
@@ -33,28 +23,34 @@ public class MainScreen implements Initializable {
      */
     private final ArrayList<String> _allDataPacks = new ArrayList<>();
 
+    /// Reads datapack names, remembering them between scans.
+    private final DatapackCatalog _datapackCatalog = new DatapackCatalog();
+
+    /// Runs every call into a plugin with a deadline, and keeps slow plugins from being called again.
+    private final PluginSupervisor _supervisor = new PluginSupervisor();
+
     /**
      * Starts the loading process and sets up important fields like spinner and tooltips.
      */
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        // Basic initialization
-        setSpinnerValueFactories();
-        setToolTips();
+        // Basic initialization, ranges, tooltips and defaults all come from the schema of the server's version.
+        try (StartupTrace.Timer timer = StartupTrace.begin("startup", "Read schema")) {
+            // The window runs in the server's folder, so it's the place to keep compiled schemas.
+            SchemaPack.setCaching(true);
+            _schema = SchemaPack.forServer(Path.of(""));
+        }
+        try (StartupTrace.Timer timer = StartupTrace.begin("startup", "Bind controls")) {
+            _properties = new ServerProperties(_schema);
+            _tracker = new ChangeTracker(_schema.size());
+            _binder = new PropertyBinder(_schema, _tracker);
+            bindControls();
+        }
         // Loading datapacks
         File datapackDir = new File("datapacks/");
         if (datapackDir.isDirectory() && datapackDir.exists()) {
-            for (File file : Objects.requireNonNull(datapackDir.listFiles())) {
-                try {
-                    String name = getDatapackName(file);
-                    if (name.equals("???"))
-                        continue;
-
-                    _allDataPacks.add(getDatapackName(file));
-                } catch (Exception e) {
-                    System.out.println("Unable to load datapack");
-                    e.printStackTrace();
-                }
+            try (StartupTrace.Timer timer = StartupTrace.begin("startup", "Scan datapacks")) {
+                _allDataPacks.addAll(_datapackCatalog.scan(datapackDir));
             }
         } else {
             listDataEnable.setDisable(true);
@@ -67,179 +63,47 @@ public class MainScreen implements Initializable {
         }
 
         // Handle config loading
-        load();
-
-        // Handle plugin loading
-        File pluginLocation = new File("plugins/");
-        if (!pluginLocation.exists()) {
-            sendNoPluginsMsg();
+        try (StartupTrace.Timer timer = StartupTrace.begin("startup", "Load server.properties")) {
+            load();
         }
 
-        if (pluginLocation.isDirectory()) {
-            try {
-                for (File file : pluginLocation.listFiles()) {
-                    String fileName = file.getName();
-                    if (!fileName.contains(".")) continue;
-
-                    int lastIndex = fileName.lastIndexOf(".") + 1;
-                    String ext = fileName.substring(lastIndex);
-
-                    if (!ext.equalsIgnoreCase("jar")) continue;
-
-                    try {
-                        // We'll use URLClassLoader to load the class
-                        URLClassLoader classLoader = new URLClassLoader(new URL[]{file.toURI().toURL()});
-                        String mainPackage = readMainPackage(classLoader);
-
-                        if (mainPackage == null) continue; // nothing found.
-
-                        try {
-                            // Load the configuration class, it must be in the main package and called SpigotConfig
-                            Class<?> cls = classLoader.loadClass(mainPackage + ".SpigotConfig");
-                            if (ConfigManifest.class.isAssignableFrom(cls)) {
-                                Object obj = cls.getConstructor().newInstance();
-                                ConfigManifest ms = (ConfigManifest) obj;
-                                updateScreen(ms);
-                            } else {
-                                System.out.println("Didn't find SpigotConfig");
-                                continue; // They didn't extend from ConfigManifest. Must extend
-                            }
-                        } catch (Exception e) {
-                            e.printStackTrace();// they don't have it, or it's not in the right place, or some other goofy issue
-                        }
-                    } catch (MalformedURLException e) {
-                        e.printStackTrace();
-                        continue; // can't load
-                    }
-                }
-            } catch (NullPointerException ex) {
-                // No plugins doc
-                sendNoPluginsMsg();
-            }
-        } else {
+        // Where startup time went, plugin tabs go in front of it.
+        _diagnostics = new DiagnosticsPane(_supervisor);
+        _diagnosticsTab = new Tab("Diagnostics", _diagnostics);
+        _diagnosticsTab.setOnSelectionChanged(event -> {
+            if (_diagnosticsTab.isSelected()) _diagnostics.refresh();
+        });
+        tpConfig.getTabs().add(_diagnosticsTab);
+
+        // Handle plugin loading, jars are probed in the background and their tabs show up as they finish.
+        _discovery = new PluginDiscovery(new File("plugins/"), this::updateScreen, _supervisor);
+        _discovery.setOnUnloaded(this::removeFromScreen);
+        if (!_discovery.start()) {
             sendNoPluginsMsg();
         }
 
-        // Ensures that enabled/disabled values inact right away on the GUI, and so that we can determine if changes were made when exiting.
-        attachListeners();
-
         // These events weren't firing on load, so had to call them manually
         rconCheck(null);
         queryCheck(null);
         whitelistCheck(null);
-    }
-
-    /**
-     * Establishes value factories, min, max, and default values of number fields.
-     */
-    private void setSpinnerValueFactories() {
-        numEntBroad.setValueFactory(getFactory(10, 1000, 100));
-        numFuncPermLevel.setValueFactory(getFactory(1, 4, 2));
-        numMaxChain.setValueFactory(getFactory(-1, Integer.MAX_VALUE, 1000000));
-        numMaxPlayers.setValueFactory(getFactory(-1, Integer.MAX_VALUE, 20));
-        numMaxTickTime.setValueFactory(new LongSpinnerValueFactory(-1, Long.MAX_VALUE, 60000));
-        numMaxWorldSize.setValueFactory(getFactory(1, 29999984, 29999984));
-        numNetComprThresh.setValueFactory(getFactory(-1, 1500, 256));
-        numOpPerm.setValueFactory(getFactory(0, 4, 4));
-        numEmptySec.setValueFactory(getFactory(1, Integer.MAX_VALUE, 60));
-        numIdleTimeout.setValueFactory(getFactory(0, Integer.MAX_VALUE, 0));
-        numQueryPort.setValueFactory(getFactory(0, 65535, 25565));
-        numRconPort.setValueFactory(getFactory(1, 65535, 25575));
-        numPort.setValueFactory(getFactory(1, 65535, 25565));
-        numSimDist.setValueFactory(getFactory(3, 32, 10));
-        numSpawnProtection.setValueFactory(getFactory(0, Integer.MAX_VALUE, 16));
-        numViewDist.setValueFactory(getFactory(3, 32, 10));
-        numRateLimit.setValueFactory(getFactory(0, Integer.MAX_VALUE, 0));
-    }
-
-    /**
-     * Creates the data factory to simply the code in the factory method.
-     * @param min The min value of this factory
-     * @param max The max value of this factory
-     * @param init The initial value of this factory.
-     * @return Gets the factory established with the argued parameters.
-     */
-    private IntegerSpinnerValueFactory getFactory(int min, int max, int init) {
-        return new IntegerSpinnerValueFactory(min, max, init);
-    }
 
-    /**
-     * Gets the file extension of the specified File object
-     * @param file The file
-     * @return The extension
-     */
-    private String getExt(File file) {
-        String fileName = file.getName();
-        int last = fileName.lastIndexOf(".");
-        fileName = fileName.substring(last + 1);
-        return fileName;
+        // Pick up changes other tools make while we're open.
+        try (StartupTrace.Timer timer = StartupTrace.begin("startup", "Start watching files")) {
+            startWatching();
+        }
     }
 
-    /**
-     * Gets the datapack name of the specified file. Must be a valid Minecraft datapack or else it won't work.
-     * @param file The file
-     * @return Gets the datapack name.
-     * @throws IOException Will throw if issue with the file.
-     */
-    private String getDatapackName(File file) throws IOException {
-        String json = "";
-        if (!file.isDirectory()) {
-            String fileName = getExt(file);
-
-            // If file name is not a valid type, signal to the parser to ignore it with ???
-            if (!fileName.equals("zip")) {
-                return "???";
-            }
+    /// Finds the plugins, and unloads or reloads them.
+    private PluginDiscovery _discovery;
 
-            // Find the pack.mcmeta file in the zip archive and read it for the name.
-            ZipFile pack = new ZipFile(file);
-            ZipEntry meta = pack.getEntry("pack.mcmeta");
-            InputStream stream = pack.getInputStream(meta);
-            BufferedReader br = new BufferedReader(new InputStreamReader(stream));
-            String line;
-            while ((line = br.readLine()) != null) {
-                json += line + "\n";
-            }
-        } else {
-            // If the folder isn't zipped
-            for (File f : file.listFiles()) {
-                if (f.getName().equals("pack.mcmeta")) {
-                    for (String line : Files.readAllLines(f.toPath())) {
-                        json += line + "\n";
-                    }
-                }
-            }
-        }
+    /// The tabs of each plugin, so they can be taken away when it's unloaded.
+    private final IdentityHashMap<ConfigManifest, List<Tab>> _pluginTabs = new IdentityHashMap<>();
 
-        // Loads the json so we can strip the name out.
-        Gson gson = new Gson();
-        JsonObject obj = JsonParser.parseString(json).getAsJsonObject();
-        JsonObject packObj = obj.getAsJsonObject("pack");
-        JsonObject desc = packObj.getAsJsonObject("description");
-        String trans = desc.get("translate").getAsString();
-        return trans;
-    }
+    /// The tab showing where startup time went.
+    private Tab _diagnosticsTab;
 
-    /**
-     * Used to read the main package of plugins installed to Spigot. This is useful so we can find what plugins support this application.
-     * @param clLoader
-     * @return
-     */
-    private String readMainPackage(URLClassLoader clLoader) {
-        // Read the main package from the plugin itself
-        InputStream is = clLoader.getResourceAsStream("plugin.yml");
-
-        try {
-            Yaml yaml = new Yaml();
-            Map<String, Object> objMap = yaml.load(is);
-
-            String mainClass = objMap.get("main").toString();
-            int lastDot = mainClass.lastIndexOf(".");
-            return mainClass.substring(0, lastDot);
-        } catch (YAMLException ex) {
-            return null;
-        }
-    }
+    /// The contents of the diagnostics tab.
+    private DiagnosticsPane _diagnostics;
 
     /// Used to tell if the warning has been shown yet or not. Ensures we don't show the message more than once.
     private boolean _msgShow = false;
@@ -261,29 +125,29 @@ public class MainScreen implements Initializable {
         _msgShow = true;
     }
 
-    /// Used by the application to tell if changes were made when the user hits exit. If there were changes, it prompts them to save.
-    private boolean _changesMade = false;
-
     /**
      * Determines if changes were made or not, if not, exits. If there were changes, prompts them to save.
      */
     public void onExit(ActionEvent event) {
-        boolean changes = _changesMade;
+        boolean changes = _tracker.getCount() > 0;
 
         for (ConfigManifest mf : ExtConfigs) {
-            for (ConfigTab tab : mf.getTabs()) {
-                if (tab.changesMade()) {
+            for (TabDescriptor descriptor : mf.getTabDescriptors()) {
+                ConfigTab tab = descriptor.getIfLoaded();
+                if (tab != null && tab.changesMade()) {
                     changes = true;
                     break;
                 }
             }
         }
 
-        if (_changesMade) {
+        if (changes) {
+            int count = _tracker.getCount();
             Alert confirmation = new Alert(Alert.AlertType.WARNING);
             confirmation.setTitle("Save before exiting?");
             confirmation.setHeaderText("Save changes?");
-            confirmation.setContentText("Changes made will not be saved.");
+            confirmation.setContentText(count == 0 ? "Changes made will not be saved." :
+                    count + (count == 1 ? " unsaved change" : " unsaved changes") + " will be lost.");
 
             ButtonType save = new ButtonType("Save");
             ButtonType exit = new ButtonType("Exit");
@@ -303,26 +167,186 @@ public class MainScreen implements Initializable {
     public static ArrayList<ConfigManifest> ExtConfigs = new ArrayList<ConfigManifest>();
 
     /**
-     * Updates screen with each config tab created by plugins.
+     * Updates screen with each config tab created by plugins. Tabs that haven't been built yet get an empty
+     * placeholder and are only built when first selected.
      */
     public void updateScreen(ConfigManifest i) {
         ExtConfigs.add(i);
-        for (ConfigTab config : i.getTabs()) {
-            Tab tab = new Tab(config.Name);
+        String plugin = PluginSupervisor.pluginOf(i.getClass());
+        ArrayList<Tab> tabs = new ArrayList<>();
+        for (TabDescriptor descriptor : i.getTabDescriptors()) {
+            Tab tab = new Tab(descriptor.getName());
+            tab.setContextMenu(createPluginMenu(plugin));
+
+            if (descriptor.isLoaded()) {
+                tab.setContent(createTabPane(descriptor.get()));
+            } else {
+                tab.setOnSelectionChanged(event -> {
+                    if (tab.isSelected() && tab.getContent() == null) {
+                        try (StartupTrace.Timer timer = StartupTrace.begin("tab", descriptor.getName())) {
+                            ConfigTab config = _supervisor.callHere(plugin, PluginSupervisor.Operation.BUILD_TAB, descriptor::get);
+                            tab.setContent(createTabPane(config));
+                        } catch (PluginSupervisor.PluginException e) {
+                            System.out.println(e.getMessage());
+                            if (e.getCause() != null) e.getCause().printStackTrace();
+                            tab.setContent(new Label(e.getMessage()));
+                        }
+                    }
+                });
+            }
 
-            AnchorPane pane = new AnchorPane();
-            pane.setMinHeight(0.0);
-            pane.setMinWidth(0.0);
-            pane.setPrefHeight(281.0);
-            pane.setPrefWidth(574.0);
+            tpConfig.getTabs().add(tpConfig.getTabs().indexOf(_diagnosticsTab), tab);
+            tabs.add(tab);
+        }
+        _pluginTabs.put(i, tabs);
+    }
 
-            for (Control ctrl : config.Controls) {
-                pane.getChildren().add(ctrl);
-            }
+    /**
+     * Takes away the tabs of a plugin that was unloaded. Changes made in them that weren't saved are lost.
+     * @param i The plugin's manifest.
+     */
+    private void removeFromScreen(ConfigManifest i) {
+        ExtConfigs.remove(i);
+        List<Tab> tabs = _pluginTabs.remove(i);
+        if (tabs != null) tpConfig.getTabs().removeAll(tabs);
+    }
 
-            tab.setContent(pane);
-            tpConfig.getTabs().add(tab);
+    /**
+     * Creates the menu of a plugin's tabs, for unloading or reloading the plugin.
+     * @param plugin The plugin's jar name.
+     * @return The menu.
+     */
+    private ContextMenu createPluginMenu(String plugin) {
+        MenuItem reload = new MenuItem("Reload " + plugin);
+        reload.setOnAction(event -> _discovery.reload(plugin));
+        MenuItem unload = new MenuItem("Unload " + plugin);
+        unload.setOnAction(event -> _discovery.unload(plugin));
+        return new ContextMenu(reload, unload);
+    }
+
+    /**
+     * Gets what a plugin tab shows: the root of its fxml, layout and all, moved out of the scene it was loaded into.
+     * @param config The plugin's tab.
+     * @return The tab's content.
+     */
+    private Node createTabPane(ConfigTab config) {
+        Parent root = config.getRoot();
+        if (root == null) return new Label(config.Name + " couldn't be loaded.");
+
+        // A node can only be in one place, and a scene always needs a root.
+        if (config.Scene != null && config.Scene.getRoot() == root) {
+            config.Scene.setRoot(new Group());
         }
+        return root;
+    }
+
+    /// The properties being edited. The controls are filled from it when loading and written back to it when saving.
+    private ServerProperties _properties = new ServerProperties();
+
+    /// The properties the server's version has.
+    private PropertySchema _schema = PropertySchema.VANILLA;
+
+    /// Knows which properties were changed since they were loaded or saved.
+    private ChangeTracker _tracker;
+
+    /// Which control shows each property.
+    private PropertyBinder _binder;
+
+    /**
+     * Pairs each property with the control that shows it, which also starts tracking changes to them.
+     */
+    private void bindControls() {
+        _binder.bind("accepts-transfers", chkTransfers);
+        _binder.bind("allow-flight", chkFlight);
+        _binder.bind("allow-nether", chkNether);
+        _binder.bind("broadcast-console-to-ops", chkConsoleOps);
+        _binder.bind("broadcast-rcon-to-ops", chkRconOps);
+        _binder.bind("bug-report-link", txtBugLink);
+        _binder.bind("enable-command-block", chkCmdBlock);
+        _binder.bind("enable-jmx-monitoring", chkJmx);
+        _binder.bind("enable-query", chkQuery);
+        _binder.bind("enable-rcon", chkRcon);
+        _binder.bind("enable-status", chkEnableStatus);
+        _binder.bind("enforce-secure-profile", chkEnforceSecProfile);
+        _binder.bind("enforce-whitelist", chkEnforceWhitelist);
+        _binder.bind("entity-broadcast-range-percentage", numEntBroad);
+        _binder.bind("force-gamemode", chkForceGameMode);
+        _binder.bind("function-permission-level", numFuncPermLevel);
+        _binder.bind("gamemode", cboMode);
+        _binder.bind("generate-structures", chkStructures);
+        _binder.bind("hide-online-players", chkHideOnline);
+        _binder.bind("level-name", txtWorldName);
+        _binder.bind("level-seed", txtSeed);
+        _binder.bind("level-type", cboLevelType);
+        _binder.bind("log-ips", ckLogIp);
+        _binder.bind("max-chained-neighbor-updates", numMaxChain);
+        _binder.bind("max-players", numMaxPlayers);
+        _binder.bind("max-tick-time", numMaxTickTime);
+        _binder.bind("max-world-size", numMaxWorldSize);
+        _binder.bind("motd", txtMotd);
+        _binder.bind("network-compression-threshold", numNetComprThresh);
+        _binder.bind("online-mode", chkOnlineMode);
+        _binder.bind("op-permission-level", numOpPerm);
+        _binder.bind("pause-when-empty-seconds", numEmptySec);
+        _binder.bind("player-idle-timeout", numIdleTimeout);
+        _binder.bind("prevent-proxy-connections", chkPreventProxy);
+        _binder.bind("pvp", chkPvP);
+        _binder.bind("query.port", numQueryPort);
+        _binder.bind("rate-limit", numRateLimit);
+        _binder.bind("rcon.password", txtRconPassword);
+        _binder.bind("rcon.port", numRconPort);
+        _binder.bind("region-file-compression", cboRegionFileCompr);
+        _binder.bind("require-resource-pack", chkForceResPack);
+        _binder.bind("resource-pack", txtResPack);
+        _binder.bind("server-ip", txtServerIp);
+        _binder.bind("server-port", numPort);
+        _binder.bind("simulation-distance", numSimDist);
+        _binder.bind("spawn-monsters", chkMonsters);
+        _binder.bind("spawn-protection", numSpawnProtection);
+        _binder.bind("sync-chunk-writes", chkSyChunkWr);
+        _binder.bind("use-native-transport", chkUseNativeTransport);
+        _binder.bind("view-distance", numViewDist);
+        _binder.bind("white-list", chkEnforceWhitelist); // todo seperate
+
+        // Hardcore is treated like the fifth difficulty instead of having its own checkbox.
+        String[] difficulties = _schema.get("difficulty").getOptions();
+        _binder.bind("difficulty", cboDifficulty, cboDifficulty.valueProperty(), () -> {
+            int sel = cboDifficulty.getSelectionModel().getSelectedIndex();
+            return sel < 0 ? null : difficulties[sel == 4 ? 3 : sel];
+        }, value -> {
+            int option = _schema.get("difficulty").indexOfOption(value);
+            if (option >= 0) cboDifficulty.getSelectionModel().select(option);
+        });
+        _binder.bind("hardcore", cboDifficulty, cboDifficulty.valueProperty(), () -> {
+            int sel = cboDifficulty.getSelectionModel().getSelectedIndex();
+            return sel < 0 ? null : Boolean.toString(sel == 4);
+        }, value -> {
+            if (Boolean.parseBoolean(value)) {
+                cboDifficulty.getSelectionModel().select(4);
+            } else if (cboDifficulty.getSelectionModel().getSelectedIndex() == 4) {
+                cboDifficulty.getSelectionModel().select(3);
+            }
+        });
+
+        // data packs, left as they were if there aren't any to choose from
+        _binder.bind("initial-enabled-packs", listDataEnable, listDataEnable.getItems(),
+                () -> listDataEnable.isDisabled() ? null : String.join(",", listDataEnable.getItems()),
+                this::applyPacks);
+        _binder.bind("initial-disabled-packs", listDataEnable, listDataDisable.getItems(),
+                () -> listDataEnable.isDisabled() ? null : String.join(",", listDataDisable.getItems()),
+                value -> { }); // follows from the enabled ones
+
+        _tracker.setOnCountChanged(this::showChangeCount);
+    }
+
+    /**
+     * Shows how many changes haven't been saved yet on the save button.
+     * @param count The number of changed properties.
+     */
+    private void showChangeCount(int count) {
+        if (_saving) return;
+
+        btnSave.setText(count == 0 ? "Save" : "Save (" + count + ")");
     }
 
     /**
@@ -342,17 +366,8 @@ public class MainScreen implements Initializable {
             return;
         }
 
-        HashMap<String, String> loads = new HashMap<>();
-
         try {
-            for (String line : Files.readAllLines(file.toPath())) {
-                if (line.toCharArray()[0] == '#') continue; // ignore
-
-                int stop = line.indexOf("=");
-                String config = line.substring(0, stop);
-                String value = line.substring(stop + 1);
-                loads.put(config, value);
-            }
+            _properties = ServerProperties.load(_schema, file.toPath());
         } catch (IOException e) {
             e.printStackTrace();
             Alert noLoad = new Alert(Alert.AlertType.WARNING);
@@ -362,459 +377,328 @@ public class MainScreen implements Initializable {
             noLoad.showAndWait();
             loadDefaults();
             save(null);
-        } finally {
-            for (String key : loads.keySet()) {
-                String value = loads.get(key);
-
-                switch (key) {
-                    case "accepts-transfers":
-                        chkTransfers.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "allow-flight":
-                        chkFlight.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "allow-nether":
-                        chkNether.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "broadcast-console-to-ops":
-                        chkConsoleOps.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "broadcast-rcon-to-ops":
-                        chkRconOps.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "bug-report-link":
-                        txtBugLink.setText(value);
-                        break;
-                    case "difficulty":
-                        int sel = 1;
-                        switch (value) {
-                            case "peaceful": sel = 0; break;
-                            case "easy": sel = 1; break;
-                            case "normal": sel = 2; break;
-                            case "hard": sel = 3; break;
-                        }
-                        cboDifficulty.getSelectionModel().select(sel);
-                        break;
-                    case "hardcore":
-                        cboDifficulty.getSelectionModel().select(4);
-                        break;
-                    case "enable-command-block":
-                        chkCmdBlock.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "enable-jmx-monitoring":
-                        chkJmx.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "enable-query":
-                        chkQuery.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "enable-rcon":
-                        chkRcon.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "enable-status":
-                        chkEnableStatus.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "enforce-secure-profile":
-                        chkEnforceSecProfile.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "enforce-whitelist":
-                    case "white-list": // todo seperate
-                        chkEnforceWhitelist.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "entity-broadcast-range-percentage":
-                        numEntBroad.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    case "force-gamemode":
-                        chkForceGameMode.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "generate-structures":
-                        chkStructures.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "hide-online-players":
-                        chkHideOnline.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "level-name":
-                        txtWorldName.setText(value);
-                        break;
-                    case "level-seed":
-                        txtSeed.setText(value);
-                        break;
-                    case "level-type":
-                        int val = 0;
-                        String setting = value.substring(value.indexOf(":") + 1);
-                        switch (setting) {
-                            case "normal": val = 0; break;
-                            case "flat": val = 1; break;
-                            case "large_biomes": val = 2; break;
-                            case "amplified": val = 3; break;
-                            case "single_biome_surface": val = 4; break;
-                        }
+            return;
+        }
 
-                        cboLevelType.getSelectionModel().select(val);
-                        break;
-                    case "log-ips":
-                        ckLogIp.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "max-chained-neighbor-updates":
-                        numMaxChain.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    case "max-players":
-                        numMaxPlayers.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    case "max-tick-time":
-                        numMaxTickTime.getValueFactory().setValue(Long.parseLong(value));
-                        break;
-                    case "max-world-size":
-                        numMaxWorldSize.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    case "motd":
-                        txtMotd.setText(value);
-                        break;
-                    case "network-compression-threshold":
-                        numNetComprThresh.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    case "online-mode":
-                        chkOnlineMode.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "op-permission-level":
-                        numOpPerm.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    case "pause-when-empty-seconds":
-                        numEmptySec.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    case "player-idle-timeout":
-                        numIdleTimeout.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    case "prevent-proxy-connections":
-                        chkPreventProxy.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "pvp":
-                        chkPvP.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "query.port":
-                        numQueryPort.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    case "rate-limit":
-                        numRateLimit.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    case "rcon.password":
-                        txtRconPassword.setText(value);
-                        break;
-                    case "rcon.port":
-                        numRconPort.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    case "region-file-compression":
-                        int x = 0;
-
-                        switch (value) {
-                            case "deflate": x = 0; break;
-                            case "lz4": x = 1; break;
-                            case "none": x = 2; break;
-                        }
-                        cboRegionFileCompr.getSelectionModel().select(x);
-                        break;
-                    case "require-resource-pack":
-                        chkForceResPack.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "resource-pack":
-                        txtResPack.setText(value);
-                        break;
-                    case "server-ip":
-                        txtServerIp.setText(value);
-                        break;
-                    case "server-port":
-                        numPort.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    case "simulation-distance":
-                        numSimDist.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    case "spawn-monsters":
-                        chkMonsters.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "spawn-protection":
-                        numSpawnProtection.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    case "sync-chunk-writes":
-                        chkSyChunkWr.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "use-native-transport":
-                        chkUseNativeTransport.setSelected(Boolean.parseBoolean(value));
-                        break;
-                    case "view-distance":
-                        numViewDist.getValueFactory().setValue(Integer.parseInt(value));
-                        break;
-                    default:
-                        handleNewConfig(key, value);
-                        break;
-                }
-            }
+        applyProperties();
+        _tracker.rebase();
+        warnInvalidValues();
+    }
+
+    /**
+     * Lets the user know about values in the file the server won't accept. Their controls show the closest thing
+     * they can, so saving would replace them.
+     */
+    private void warnInvalidValues() {
+        PropertySchema schema = _properties.getSchema();
+        ArrayList<String> problems = new ArrayList<>();
+        for (int x = 0; x < schema.size(); x++) {
+            if (!_properties.isSet(x)) continue;
+
+            String problem = schema.get(x).validate(_properties.getString(x));
+            if (problem != null) problems.add(schema.get(x).getKey() + " " + problem);
         }
+
+        if (problems.isEmpty()) return;
+
+        Alert invalid = new Alert(Alert.AlertType.WARNING);
+        invalid.setTitle("Invalid values");
+        invalid.setHeaderText("Some settings in server.properties aren't valid");
+        invalid.setContentText(String.join("\n", problems));
+        invalid.showAndWait();
+    }
+
+    /**
+     * Fills the controls from the loaded properties. Controls of properties missing from the file are left alone.
+     */
+    private void applyProperties() {
+        applyProperties(_properties, null);
     }
 
     /**
-     * Handles new or glanced over configurations not handled by this application. Future versions will require handling new/changed items here.
-     * @param key The key of the property.
-     * @param value The value of the property.
+     * Fills the controls from the specified properties.
+     * @param source Where the values come from.
+     * @param keys Only these keys are applied, or all of them if null.
      */
-    private void handleNewConfig(String key, String value) {
-        otherConfigs.put(key, value);
+    private void applyProperties(ServerProperties source, Set<String> keys) {
+        _binder.apply(source, keys);
     }
 
-    /// Used to store new/changed/glanced over config items.
-    private final HashMap<String, String> otherConfigs = new HashMap<>();
+    /**
+     * Moves the specified packs to the enabled list and the rest to the disabled one.
+     * @param packs The comma separated list of enabled packs.
+     */
+    private void applyPacks(String packs) {
+        if (listDataEnable.isDisabled()) return;
 
-    /// Loads defaults based on vanilla server.properties
-    private void loadDefaults() {
-        chkTransfers.setSelected(false);
-        chkFlight.setSelected(false);
-        chkNether.setSelected(true);
-        chkConsoleOps.setSelected(true);
-        chkRconOps.setSelected(true);
-        txtBugLink.setText("https://change.me/");
-        cboDifficulty.getSelectionModel().select(1);
-        chkCmdBlock.setSelected(false);
-        chkJmx.setSelected(false);
-        chkQuery.setSelected(false);
-        chkRcon.setSelected(false);
-        chkEnableStatus.setSelected(true);
-        chkEnforceSecProfile.setSelected(true);
-        chkEnforceWhitelist.setSelected(false);
-        numEntBroad.getValueFactory().setValue(100);
-        chkForceGameMode.setSelected(false);
-        numFuncPermLevel.getValueFactory().setValue(2);
-        cboMode.getSelectionModel().select(0);
-        chkStructures.setSelected(true);
-        chkHideOnline.setSelected(false);
-        txtWorldName.setText("world");
-        txtSeed.setText(" ");
-        cboLevelType.getSelectionModel().select(0);
-        ckLogIp.setSelected(true);
-        numMaxChain.getValueFactory().setValue(1000000);
-        numMaxPlayers.getValueFactory().setValue(20);
-        numMaxTickTime.getValueFactory().setValue(60000);
-        numMaxWorldSize.getValueFactory().setValue(29999984);
-        txtMotd.setText("A Minecraft Server");
-        numNetComprThresh.getValueFactory().setValue(256);
-        chkOnlineMode.setSelected(true);
-        numOpPerm.getValueFactory().setValue(4);
-        numEmptySec.getValueFactory().setValue(60);
-        numIdleTimeout.getValueFactory().setValue(0);
-        chkPreventProxy.setSelected(false);
-        chkPvP.setSelected(true);
-        numQueryPort.getValueFactory().setValue(25565);
-        numRateLimit.getValueFactory().setValue(0);
-        txtRconPassword.setText(" ");
-        numRconPort.getValueFactory().setValue(25575);
-        cboRegionFileCompr.getSelectionModel().select(2);
-        chkForceResPack.setSelected(false);
-        txtResPack.setText(" ");
-        txtServerIp.setText(" ");
-        numPort.getValueFactory().setValue(25565);
-        numSimDist.getValueFactory().setValue(10);
-        chkMonsters.setSelected(true);
-        numSpawnProtection.getValueFactory().setValue(16);
-        chkSyChunkWr.setSelected(true);
-        chkUseNativeTransport.setSelected(true);
-        numViewDist.getValueFactory().setValue(10);
-        chkEnforceWhitelist.setSelected(false);
-
-        // data packs
-        listDataEnable.getItems().clear();
-        listDataEnable.getItems().add("vanilla");
+        List<String> enabled = splitPacks(packs);
+        listDataEnable.getItems().setAll(enabled);
         listDataDisable.getItems().clear();
         for (String pack : _allDataPacks) {
-            listDataDisable.getItems().add(pack);
+            if (!enabled.contains(pack)) listDataDisable.getItems().add(pack);
         }
     }
 
-    /// Used to store all properties during saving.
-    private ArrayList<String> _props = new ArrayList<>();
+    /// Watches server.properties and the datapacks folder for changes made outside the application.
+    private FileWatcher _watcher;
 
     /**
-     * Saves the config.
-     * @param event
+     * Starts watching server.properties and the datapacks folder.
      */
-    public void save(ActionEvent event) {
-        for (ConfigManifest ext : ExtConfigs) {
-            ext.save();
+    private void startWatching() {
+        try {
+            _watcher = new FileWatcher(FileWatcher.DEFAULT_DEBOUNCE, this::onFilesChanged);
+            _watcher.watch(Path.of("").toAbsolutePath());
+
+            File datapackDir = new File("datapacks/");
+            if (datapackDir.isDirectory()) {
+                _watcher.watch(datapackDir.toPath().toAbsolutePath());
+            }
+
+            // Plugins updated during maintenance are reloaded in place.
+            File pluginDir = new File("plugins/");
+            if (pluginDir.isDirectory()) {
+                _watcher.watch(pluginDir.toPath().toAbsolutePath());
+            }
+
+            _watcher.start();
+        } catch (IOException e) {
+            System.out.println("Unable to watch for file changes");
+            e.printStackTrace();
         }
+    }
 
-        _props = new ArrayList<String>();
-
-        add("accepts-transfers", chkTransfers);
-        add("allow-flight", chkFlight);
-        add("allow-nether", chkNether);
-        add("broadcast-console-to-ops", chkConsoleOps);
-        add("broadcast-rcon-to-ops", chkRconOps);
-        add("bug-report-link", txtBugLink);
-        add("difficulty", cboDifficulty);
-        add("enable-command-block", chkCmdBlock);
-        add("enable-jmx-monitoring", chkJmx);
-        add("enable-query", chkQuery);
-        add("enable-rcon", chkRcon);
-        add("enable-status", chkEnableStatus);
-        add("enforce-secure-profile", chkEnforceSecProfile);
-        add("enforce-whitelist", chkEnforceWhitelist);
-        // todo - whitelist setup?
-        add("entity-broadcast-range-percentage", numEntBroad);
-        add("force-gamemode", chkForceGameMode);
-        add("generate-structures", chkStructures);
-        _props.add("generator-settings={}"); // online search shows it doesn't work right so this application doesn't support its use
-        // ignore hardcore line, handled by difficulty
-        add("hide-online-players", chkHideOnline);
-        add("level-name", txtWorldName);
-        add("level-seed", txtSeed);
-        _props.add("level-type=" + getLevelTypeValue());
-        add("log-ips", ckLogIp);
-        add("max-chained-neighbor-update", numMaxChain);
-        add("max-players", numMaxPlayers);
-        add("max-tick-time", numMaxTickTime);
-        add("max-world-size", numMaxWorldSize);
-        add("motd", txtMotd);
-        add("network-compression-threshold", numNetComprThresh);
-        add("online-mode", chkOnlineMode);
-        add("op-permission-level", numOpPerm);
-        add("pause-when-empty-seconds", numEmptySec);
-        add("player-idle-timeout", numIdleTimeout);
-        add("prevent-proxy-connections", chkPreventProxy);
-        add("pvp", chkPvP);
-        add("query.port", numQueryPort);
-        add("rate-limit", numRateLimit);
-        add("rcon.password", txtRconPassword);
-        add("rcon.port", numRconPort);
-        add("region-file-compression", cboRegionFileCompr);
-        add("require-resource-pack", chkForceResPack);
-        add("resource-pack", txtResPack);
-        //add("resource-pack-prompt"); // todo
-        add("server-ip", txtServerIp);
-        add("server-port", numPort);
-        add("simulation-distance", numSimDist);
-        add("spawn-monsters", chkMonsters);
-        add("spawn-protection", numSpawnProtection);
-        add("sync-chunk-writes", chkSyChunkWr);
-        add("use-native-transport", chkUseNativeTransport);
-        add("view-distance", numViewDist);
-        add("white-list", chkEnforceWhitelist);
-
-        // still save other configs
-        for (String key : otherConfigs.keySet()) {
-            _props.add(key + "=" + otherConfigs.get(key));
+    /**
+     * Handles files that changed outside the application.
+     * @param changed The paths that changed.
+     */
+    private void onFilesChanged(Set<Path> changed) {
+        Path datapacks = Path.of("datapacks").toAbsolutePath();
+        for (Path path : changed) {
+            if (path.equals(datapacks) || datapacks.equals(path.getParent())) {
+                reloadDatapacks();
+                break;
+            }
         }
 
-        // data packs
-        ObservableList<String> enabledPacks = listDataEnable.getItems();
-        ObservableList<String> disabledPacks = listDataDisable.getItems();
-        String enabledList = "";
-        String disabledList = "";
+        if (changed.contains(Path.of("server.properties").toAbsolutePath())) {
+            reloadProperties();
+        }
+
+        List<File> jars = _discovery.getChanged(changed);
+        if (!jars.isEmpty()) {
+            reloadPlugins(jars);
+        }
+    }
+
+    /**
+     * Reloads the plugins whose jars changed on disk, leaving the others alone. A plugin with unsaved changes is only
+     * reloaded if the user agrees to lose them.
+     * @param jars The jars that changed.
+     */
+    private void reloadPlugins(List<File> jars) {
+        ArrayList<File> reload = new ArrayList<>();
+        for (File jar : jars) {
+            PluginDiscovery.Plugin plugin = _discovery.getLoaded(jar.getName());
+            if (plugin == null || !hasChanges(plugin.manifest()) || confirmReload(jar.getName())) {
+                reload.add(jar);
+            }
+        }
 
-        for (String enabled : enabledPacks) {
-            enabledList += enabled + ",";
+        if (!reload.isEmpty()) {
+            _discovery.refresh(reload);
         }
+    }
 
-        for (String disabled : disabledPacks) {
-            disabledList += disabled + ",";
+    /**
+     * Whether any of a plugin's tabs has unsaved changes.
+     * @param i The plugin's manifest.
+     */
+    private static boolean hasChanges(ConfigManifest i) {
+        for (TabDescriptor descriptor : i.getTabDescriptors()) {
+            ConfigTab tab = descriptor.getIfLoaded();
+            if (tab != null && tab.changesMade()) return true;
         }
+        return false;
+    }
 
-        _props.add("initial-disabled-packs=" + disabledList);
-        _props.add("initial-enabled-packs=" + enabledList);
+    /**
+     * Asks whether to reload a plugin that has unsaved changes.
+     * @param plugin The plugin's jar name.
+     * @return True to reload it.
+     */
+    private boolean confirmReload(String plugin) {
+        Alert confirmation = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmation.setTitle("Plugin updated");
+        confirmation.setHeaderText(plugin + " was updated");
+        confirmation.setContentText("Reloading it loses the changes made in its tabs that weren't saved. " +
+                "It can be reloaded later from the menu of its tabs.");
+
+        ButtonType reload = new ButtonType("Reload");
+        ButtonType later = new ButtonType("Later", ButtonBar.ButtonData.CANCEL_CLOSE);
+        confirmation.getButtonTypes().setAll(reload, later);
+        Optional<ButtonType> result = confirmation.showAndWait();
+        return result.isPresent() && result.get() == reload;
+    }
 
+    /**
+     * Re-reads server.properties after it changed on disk and applies only the keys that changed. Keys that also
+     * have unsaved changes here are left alone and the user is told about them.
+     */
+    private void reloadProperties() {
+        if (_saving) {
+            _reloadAfterSave = true;
+            return;
+        }
 
+        byte[] data;
         try {
-            File file = new File("server.properties");
-            if (!file.exists())
-                file.delete();
+            data = Files.readAllBytes(Path.of("server.properties"));
+        } catch (IOException e) {
+            return; // removed or still being written, the next event will tell
+        }
 
-            file.createNewFile();
+        if (_properties.isSnapshotOf(data)) return; // nothing new, probably our own save
 
-            FileWriter writer = new FileWriter(file);
+        PropertySchema schema = _properties.getSchema();
+        ServerProperties theirs = ServerProperties.parse(schema, data);
 
-            Date now = new Date();
-            SimpleDateFormat sdf = new SimpleDateFormat("E MMM dd HH:mm:ss z yyyy");
+        HashSet<String> apply = new HashSet<>();
+        ArrayList<String> conflicts = new ArrayList<>();
+        for (int x = 0; x < schema.size(); x++) {
+            if (!theirs.isSet(x)) continue; // removed on disk, the controls keep showing the value
 
-            writer.write("# Minecraft server properties\n");
-            writer.write("# " + sdf.format(now) + "\n");
-            writer.write("# Generated by SpigotConfig by CopperPenguin96.");
+            String base = _properties.isSet(x) ? _properties.getString(x) : null;
+            String changed = theirs.getString(x);
+            if (changed.equals(base)) continue;
 
-            for (String line : _props) {
-                writer.write("\n" + line);
+            String key = schema.get(x).getKey();
+            if (_tracker.isDirty(x) && !changed.equals(_tracker.getValue(x))) {
+                conflicts.add(key);
+                _tracker.rebase(x, changed); // still differs, so it stays changed
+            } else {
+                apply.add(key);
             }
+        }
 
-            writer.write("\n# End Config.");
-            writer.flush();
-            writer.close();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        _properties = theirs;
+        applyProperties(theirs, apply);
+        for (String key : apply) {
+            int index = schema.indexOf(key);
+            _tracker.rebase(index, _binder.read(index));
+        }
+
+        if (!conflicts.isEmpty()) {
+            Alert conflict = new Alert(Alert.AlertType.WARNING);
+            conflict.setTitle("server.properties changed");
+            conflict.setHeaderText("server.properties was changed outside of Spigot Config");
+            conflict.setContentText("These settings were also changed here and kept as they are. " +
+                    "Saving will overwrite the other changes:\n" + String.join("\n", conflicts));
+            conflict.show();
         }
     }
 
     /**
-     * Used by the saving method to filter out what kind of input is being saved.
-     * @param key The key of the property being saved.
-     * @param ctrl The control used to represent the property.
+     * Re-scans the datapacks folder after packs were added or removed, keeping the user's choices for the rest.
      */
-    private void add(String key, Control ctrl) {
-        if (ctrl instanceof CheckBox)
-            addBoolean(key, (CheckBox)ctrl);
-
-        if (ctrl instanceof TextField)
-            addText(key, (TextField)ctrl);
+    private void reloadDatapacks() {
+        File datapackDir = new File("datapacks/");
+        if (listDataEnable.isDisabled() || !datapackDir.isDirectory()) return;
 
-        if (ctrl instanceof ComboBox)
-            addCombo(key, (ComboBox)ctrl);
+        List<String> packs = _datapackCatalog.scan(datapackDir);
+        for (String pack : packs) {
+            if (!_allDataPacks.contains(pack)) listDataDisable.getItems().add(pack);
+        }
+        for (String pack : _allDataPacks) {
+            if (!packs.contains(pack)) {
+                listDataEnable.getItems().remove(pack);
+                listDataDisable.getItems().remove(pack);
+            }
+        }
 
-        if (ctrl instanceof Spinner)
-            addNumber(key, (Spinner)ctrl);
+        _allDataPacks.clear();
+        _allDataPacks.addAll(packs);
     }
 
     /**
-     * Adds the boolean value from the specified checkbox to the config.
-     * @param key The key being added.
-     * @param box The checkbox control being pulled from.
+     * Splits a comma separated list of datapacks.
      */
-    private void addBoolean(String key, CheckBox box) {
-        _props.add(key + "=" + box.selectedProperty().getValue());
+    private List<String> splitPacks(String packs) {
+        ArrayList<String> list = new ArrayList<>();
+        for (String pack : packs.split(",")) {
+            if (!pack.isBlank()) list.add(pack.trim());
+        }
+        return list;
     }
 
-    /**
-     * Adds the string value from the specified textbox to the config.
-     * @param key The key being added.
-     * @param field The textbox control being pulled from.
-     */
-    private void addText(String key, TextField field) {
-        _props.add(key + "=" + field.textProperty().getValue());
+    /// Loads defaults based on vanilla server.properties
+    private void loadDefaults() {
+        _binder.applyDefaults();
     }
 
+    /// Runs saves in the background.
+    private final SavePipeline _savePipeline = new SavePipeline(_supervisor);
+
+    /// Set while a save is running, so a second one can't start on top of it.
+    private boolean _saving = false;
+
+    /// Set when server.properties changed on disk while a save was running, so it is looked at once the save is done.
+    private boolean _reloadAfterSave = false;
+
     /**
-     * Adds the selection string from the specified combobox to the config.
-     * @param key The key being added.
-     * @param cbo The combobox control being pulled fromm.
+     * Saves the config. The values are taken from the controls right away, the writing and the plugins' saves
+     * happen in the background.
+     * @param event
      */
-    private void addCombo(String key, ComboBox cbo) {
-        String value = cbo.valueProperty().getValue().toString().toLowerCase();
-
-        // handle difficulty on own, instead of having a Hardcore checkbox, having hardcore treated like the fifth difficlty.
-        if (key.equals("difficulty")) {
-            if (value.equalsIgnoreCase("hardcore")) {
-                _props.add(key + "=hard");
-                _props.add("hardcore=true");
-            } else {
-                _props.add(key + "=" + value);
-                _props.add("hardcore=false");
+    public void save(ActionEvent event) {
+        if (_saving) return;
+
+        collectProperties();
+        byte[] data = _properties.snapshot();
+        String[] saved = _tracker.values();
+
+        _saving = true;
+        btnSave.setDisable(true);
+        _savePipeline.run(new File("server.properties").toPath(), data, ExtConfigs, new SavePipeline.Listener() {
+            @Override
+            public void progress(int done, int total) {
+                btnSave.setText("Saving " + done + "/" + total);
             }
 
-            return;
-        }
+            @Override
+            public void finished(SavePipeline.Result result) {
+                if (result.data() != null) {
+                    _properties.markSaved(result.data());
+                }
+                if (data == null || result.data() != null) {
+                    _tracker.rebase(saved); // edits made while saving are still changes
+                }
+
+                _saving = false;
+                showChangeCount(_tracker.getCount());
+                btnSave.setDisable(false);
 
-        // non-difficulty related items
-        _props.add(key + "=" + cbo.valueProperty().getValue().toString().toLowerCase());
+                if (_reloadAfterSave) {
+                    _reloadAfterSave = false;
+                    reloadProperties();
+                }
+
+                if (!result.succeeded()) {
+                    Alert failed = new Alert(Alert.AlertType.WARNING);
+                    failed.setTitle("Save incomplete");
+                    failed.setHeaderText("Not everything could be saved");
+                    failed.setContentText(String.join("\n", result.failures()));
+                    failed.show();
+                }
+            }
+        });
     }
 
     /**
-     * Adds the number from the specified spinner to the config.
-     * @param key The key being added.
-     * @param sp The spinner control being pulled from.
+     * Writes the values of the changed controls back into the properties.
      */
-    private void addNumber(String key, Spinner sp) {
-        _props.add(key + "=" + sp.valueProperty().getValue());
+    private void collectProperties() {
+        _binder.collect(_properties);
     }
 
     /**
@@ -847,110 +731,6 @@ public class MainScreen implements Initializable {
         }
     }
 
-    /**
-     * Attaches listeners to applicable fields.
-     */
-    private void attachListeners() {
-        ChangeListener<String> textAreas = new ChangeListener<String>() {
-            @Override
-            public void changed(ObservableValue<? extends String> observable, String oldValue, String newValue) {
-                _changesMade = true;
-            }
-        };
-
-        ChangeListener<Integer> numAreas = new ChangeListener<Integer>() {
-            @Override
-            public void changed(ObservableValue<? extends Integer> observable, Integer oldValue, Integer newValue) {
-                _changesMade = true;
-            }
-        };
-
-        ChangeListener<Boolean> chkAreas = new ChangeListener<Boolean>() {
-            @Override
-            public void changed(ObservableValue<? extends Boolean> observable, Boolean oldValue, Boolean newValue) {
-                _changesMade = true;
-            }
-        };
-
-        txtServerName.textProperty().addListener(textAreas);
-        txtServerIp.textProperty().addListener(textAreas);
-        numPort.valueProperty().addListener(numAreas);
-        numMaxPlayers.valueProperty().addListener(numAreas);
-        txtMotd.textProperty().addListener(textAreas);
-        cboMode.valueProperty().addListener(textAreas);
-        cboDifficulty.valueProperty().addListener(textAreas);
-        chkForceGameMode.selectedProperty().addListener(chkAreas);
-        chkEnableStatus.selectedProperty().addListener(chkAreas);
-        chkHideOnline.selectedProperty().addListener(chkAreas);
-        chkConsoleOps.selectedProperty().addListener(chkAreas);
-        chkPvP.selectedProperty().addListener(chkAreas);
-        numIdleTimeout.valueProperty().addListener(numAreas);
-        txtWorldName.textProperty().addListener(textAreas);
-        txtSeed.textProperty().addListener(textAreas);
-        chkStructures.selectedProperty().addListener(chkAreas);
-        chkMonsters.selectedProperty().addListener(chkAreas);
-        numMaxWorldSize.valueProperty().addListener(numAreas);
-        numSimDist.valueProperty().addListener(numAreas);
-        numViewDist.valueProperty().addListener(numAreas);
-        numSpawnProtection.valueProperty().addListener(numAreas);
-        chkEnforceWhitelist.selectedProperty().addListener(chkAreas);
-        listWhitelist.itemsProperty().addListener(textAreas);
-        chkTransfers.selectedProperty().addListener(chkAreas);
-        chkEnforceSecProfile.selectedProperty().addListener(chkAreas);
-        ckLogIp.selectedProperty().addListener(chkAreas);
-        chkOnlineMode.selectedProperty().addListener(chkAreas);
-        chkPreventProxy.selectedProperty().addListener(chkAreas);
-        chkQuery.selectedProperty().addListener(chkAreas);
-        numQueryPort.valueProperty().addListener(numAreas);
-        chkRcon.selectedProperty().addListener(chkAreas);
-        numRconPort.valueProperty().addListener(numAreas);
-        txtRconPassword.textProperty().addListener(textAreas);
-        chkRconOps.selectedProperty().addListener(chkAreas);
-        numFuncPermLevel.valueProperty().addListener(numAreas);
-        numMaxTickTime.valueProperty().addListener(numAreas);
-        numRateLimit.valueProperty().addListener(numAreas);
-        cboRegionFileCompr.valueProperty().addListener(textAreas);
-        numMaxChain.valueProperty().addListener(numAreas);
-        chkCmdBlock.selectedProperty().addListener(chkAreas);
-        chkJmx.selectedProperty().addListener(chkAreas);
-        chkSyChunkWr.selectedProperty().addListener(chkAreas);
-        chkUseNativeTransport.selectedProperty().addListener(chkAreas);
-        numNetComprThresh.valueProperty().addListener(numAreas);
-        txtBugLink.textProperty().addListener(textAreas);
-        numOpPerm.valueProperty().addListener(numAreas);
-        numEmptySec.valueProperty().addListener(numAreas);
-        numEntBroad.valueProperty().addListener(numAreas);
-        chkFlight.selectedProperty().addListener(chkAreas);
-        chkNether.selectedProperty().addListener(chkAreas);
-        txtResPack.textProperty().addListener(textAreas);
-        chkForceResPack.selectedProperty().addListener(chkAreas);
-        listDataDisable.itemsProperty().addListener(textAreas);
-        listDataEnable.itemsProperty().addListener(textAreas);
-        cboLevelType.valueProperty().addListener(textAreas);
-    }
-
-    private String getLevelTypeValue() {
-        String mc = "minecraft\\:";
-        if (cboLevelType.getValue() == null) {
-            return mc + "normal";
-        }
-
-        switch (cboLevelType.getSelectionModel().getSelectedIndex()) {
-            case 0:
-                return mc + "normal";
-            case 1:
-                return mc + "flat";
-            case 2:
-                return mc + "large_biomes";
-            case 3:
-                return mc + "amplified";
-            case 4:
-                return mc + "single_biome_surface";
-        }
-
-        return null;
-    }
-
     public void whitelistCheck(ActionEvent actionEvent) {
         if (!chkEnforceWhitelist.selectedProperty().get()) {
             listWhitelist.setDisable(true);
@@ -979,204 +759,6 @@ public class MainScreen implements Initializable {
         numQueryPort.setDisable(!chkQuery.selectedProperty().get());
     }
 
-    private void setToolTips() {
-        chkTransfers.setTooltip(getTip("accepts-transfers"));
-        chkFlight.setTooltip(getTip("allow-flight"));
-        chkNether.setTooltip(getTip("allow-nether"));
-        chkConsoleOps.setTooltip(getTip("broadcast-console-to-ops"));
-        chkRconOps.setTooltip(getTip("broadcast-rcon-to-ops"));
-        txtBugLink.setTooltip(getTip("bug-report-link"));
-        cboDifficulty.setTooltip(getTip("difficulty"));
-        chkCmdBlock.setTooltip(getTip("enable-command-block"));
-        chkJmx.setTooltip(getTip("enable-jmx-monitoring"));
-        chkQuery.setTooltip(getTip("enable-query"));
-        chkRcon.setTooltip(getTip("enable-rcon"));
-        chkEnableStatus.setTooltip(getTip("enable-status"));
-        chkEnforceSecProfile.setTooltip(getTip("enforce-secure-profile"));
-        chkEnforceWhitelist.setTooltip(getTip("enforce-whitelist"));
-        numEntBroad.setTooltip(getTip("entity-broadcast-range-percentage"));
-        chkForceGameMode.setTooltip(getTip("force-gamemode"));
-        numFuncPermLevel.setTooltip(getTip("function-permission-level"));
-        cboMode.setTooltip(getTip("gamemode"));
-        chkStructures.setTooltip(getTip("generate-structures"));
-        chkHideOnline.setTooltip(getTip("hide-online-players"));
-        txtWorldName.setTooltip(getTip("level-name"));
-        cboLevelType.setTooltip(getTip("level-type"));
-        ckLogIp.setTooltip(getTip("log-ips"));
-        numMaxChain.setTooltip(getTip("max-chained-neigbor-updates"));
-        numMaxPlayers.setTooltip(getTip("max-players"));
-        numMaxTickTime.setTooltip(getTip("max-tick-time"));
-        numMaxWorldSize.setTooltip(getTip("max-world-size"));
-        txtMotd.setTooltip(getTip("motd"));
-        numNetComprThresh.setTooltip(getTip("network-compression-threshold"));
-        chkOnlineMode.setTooltip(getTip("online-mode"));
-        numOpPerm.setTooltip(getTip("op-permissoin-level"));
-        numEmptySec.setTooltip(getTip("pause-when-empty-seconds"));
-        numIdleTimeout.setTooltip(getTip("player-idle-timeout"));
-        chkPreventProxy.setTooltip(getTip("prevent-proxy-connections"));
-        chkPvP.setTooltip(getTip("pvp"));
-        numQueryPort.setTooltip(getTip("query.port"));
-        numRateLimit.setTooltip(getTip("rate-limit"));
-        txtRconPassword.setTooltip(getTip("rcon.password"));
-        numRconPort.setTooltip(getTip("rcon.port"));
-        cboRegionFileCompr.setTooltip(getTip("region-file-compression"));
-        chkForceResPack.setTooltip(getTip("require-resource-pack"));
-        txtResPack.setTooltip(getTip("resource-pack"));
-        txtServerIp.setTooltip(getTip("server-ip"));
-        numPort.setTooltip(getTip("server-port"));
-        numSimDist.setTooltip(getTip("simulation-distance"));
-        chkMonsters.setTooltip(getTip("spawn-monsters"));
-        numSpawnProtection.setTooltip(getTip("spawn-protection"));
-        chkSyChunkWr.setTooltip(getTip("sync-chunk-writes"));
-        chkUseNativeTransport.setTooltip(getTip("use-native-transport"));
-        numViewDist.setTooltip(getTip("view-distance"));
-    }
-
-    private Tooltip getTip(String configName) {
-        Tooltip tip = new Tooltip(getTipMessage(configName));
-        tip.setWrapText(true);
-        return tip;
-    }
-
-    /**
-     * Descriptions are from <a href="https://minecraft.wiki/w/Server.properties">the Minecraft Wiki</a>
-     */
-    private String getTipMessage(String configName) {
-        switch (configName) {
-            case "accepts-transfers":
-                return "Whether to accept incoming transfers via a transfer packet.\n" +
-                        "unchecked- incoming transfers are rejected, and the player is disconnected.\n" +
-                        "checked- incoming transfers are allowed, and the server must approve it.";
-            case "allow-flight":
-                return "Whether players can use fliht on the server while in Survival mode by using mods.\n" +
-                        "With allow-flight enabled, grifers may become more common, because it makes their work easier.\n" +
-                        "In Creative mode, this has no effect.\n\n" +
-                        "unchecked- Flight is not allowed (players in air for at least 5s get kicked).\n" +
-                        "checked- Flight is allowed, and used if the player has a fly mod installed.";
-            case "allow-nether":
-                return "Whether players can travel to the Nether.";
-            case "broadcast-console-to-ops":
-                return "Whether to send console command outputs to all online operators.";
-            case "broadcast-rcon-to-ops":
-                return "Whether to send rcon console command outputs to all online operations.";
-            case "bug-report-link":
-                return "The URL for the report_bug server link. If empty, the link is not sent.";
-            case "difficulty":
-                return "The difficulty (such as damage dealt by mobs and the way hunger and poison affects players) of the server.\n" +
-                        "Either peaceful, easy, normal, or hard.";
-            case "enable-command-block":
-                return "Whether command blocks are enabled.";
-            case "enable-jmx-monitoring":
-                return "Whether to expose MBean with the Object name net.minecraft.server:type=server and two attributes\n" +
-                        "averageTickTime and tickTimes exposing the tick times in milliseconds.\n" +
-                        "In order to enable JMX on the Java runtime you also need to use certain JVM flags.";
-            case "enable-query":
-                return "Whether to enable query, which provides information about the server.";
-            case "enable-rcon":
-                return "Whether to enable rcon, which allows access to the server console over a network.\n" +
-                        "It's not recommended to connect to rcon via untrusted networks, like the internet, as it is not encrypted.\n" +
-                        "All data sent between the client and the server (including the rcon password) can be intercepted. Ideally, only connect to rcon from localhost.";
-            case "enable-status":
-                return "Whether the server appears as \"online\" on the server list. If set to false, status replies to clients are suppressed.\n" +
-                        "This means the server appears as offline, but still accepts connections.";
-            case "enforce-secure-profile":
-                return "Whether to allow players with a Mojang-signed public key to join the server.\n" +
-                        "If this is not enabled, all chat messages will be left unsigned and unable to be reported. Clients will get warned about this when connecting to the server.";
-            case "enforce-whitelist":
-                return "Whether to enforce changes to the whitelist.\n" +
-                        "When this option as well as the whitelist is enabled, players not present on the whitelist get kicked from the server after the server reloads.";
-            case "entity-broadcast-range-percentage":
-                return "How close entities need to be to the player to be sent.\n" +
-                        "Higher values means they'll be rendered from farther away, pontially causing more lag.\n" +
-                        "This is expressed as a percentage.";
-            case "force-gamemode":
-                return "Whether to switch players to the default game mode on join.";
-            case "function-permission-level":
-                return "The default permission level for functions.";
-            case "gamemode":
-                return "The default game mode. Either survival, creative, adventure, or spectator.";
-            case "generate-structures":
-                return "Whether structures (such as villages) are generated.\n" +
-                        "Dungeons still generate if this is set to false.";
-            case "hide-online-players":
-                return "Whether to disable sending the player list on status requests.";
-            case "level-name":
-                return "*** Only applies to the main world.\n" +
-                        "The world name/directory. If a directory at this path exists and is a valid world,\n" +
-                        "it will be loaded by the server. Otherwise the server will generate a new world in this directory.";
-            case "level-seed":
-                return "The seed for the generated world. If left blank, a random seed is generated.";
-            case "level-type":
-                return "The preset for the generated world.\n" +
-                        "Either normal, flat, large biomes, amplified, or single biome surface.";
-            case "log-ips":
-                return "Whether to show client IP addresses in messages printed to the server console or the log file.";
-            case "max-chained-neighbor-updates":
-                return "The limit of consecutive neighbor updates before skipping additional ones.\n" +
-                        "Negative values disable the limit.";
-            case "max-players":
-                return "The maximum number of players that can play on the server at the same time.\n" +
-                        "Ops with the bypassesPlayerLimit enabled can join the server even if the server is full.";
-            case "max-tick-time":
-                return "The maximum number of milliseconds a single tick may take.";
-            case "max-world-size":
-                return "The amount of blocks from the center of the world where the world border appears.";
-            case "motd":
-                return "The message displayed in the server list of the client, below the server name.";
-            case "network-compression-threshold":
-                return "How big should a packet be to be compressed. -1 disables this.";
-            case "online-mode":
-                return "Whether to only allow players verified with the Minecraft account database to join.";
-            case "op-permission-level":
-                return "The default permission level for ops when using /op.";
-            case "pause-when-empty-seconds":
-                return "How many seconds have to pass after no player has been online before the server is paused.";
-            case "player-idle-timeout":
-                return "How many minutes does the player have to idle before being kicked. If set to 0, idle players are never kicked.";
-            case "prevent-proxy-connections":
-                return "Whether to kick players if the ISP/AS sent from the server is different from the one Mojang authenticates.";
-            case "pvp":
-                return "Whether to enable Player vs. Player combat.";
-            case "query.port":
-                return "The UDP port number query.";
-            case "rate-limit":
-                return "The maximum amount of packets a player can send before getting kicked. Setting to 0 disables this.";
-            case "rcon.password":
-                return "The password for rcon. If the password is blank and rcon is enabled, it will not start as a safeguard.";
-            case "rcon.port":
-                return "The TCP port number rcon listens on.";
-            case "region-file-compression":
-                return "The algorithm used for compression chunks in regions.";
-            case "require-resource-pack":
-                return "Whether players are disconnected if they decline to use the resource pack.";
-            case "resource-pack":
-                return "The resource pack download URL.";
-            case "server-ip":
-                return "The IP address the server listens on. If empty, the server listens on all available IP addresses.\n" +
-                        "It is recommended to leave this empty.";
-            case "server-port":
-                return "The TCP Port number for the server.\n" +
-                        "The port must be forwarded if the server is hosted in a network using NAT.";
-            case "simulation-distance":
-                return "The maximum distance from players that living entities may be located in order to be updated by the server, by chunks.";
-            case "spawn-monsters":
-                return "Whether monsters can spawn.";
-            case "spawn-protection":
-                return "The side length of the square spawn protection area.";
-            case "sync-chunk-writes":
-                return "Whether to enable synchronous chunk writes.";
-            case "use-native-transport":
-                return "Whether to use optimized packet sending/receiving on Linux.";
-            case "view-distance":
-                return "The amount of world data the server sends the client, by chunks.";
-            case "white-list":
-                return "Whether the whitelist is enabled.";
-        }
-
-        return "";
-    }
-
-
     // region Controls
 
     public TabPane tpConfig;
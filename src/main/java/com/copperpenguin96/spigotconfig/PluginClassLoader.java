@@ -0,0 +1,143 @@
+package com.copperpenguin96.spigotconfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+
+/**
+ * Loads the classes of a single plugin jar. Classes are looked for in the jar first, so a plugin can bundle its own
+ * copy of a library without clashing with ours or another plugin's. The only classes it can see besides its own are
+ * the JDK's, JavaFX, this application's API and what a Spigot server gives its plugins (the Bukkit API, SnakeYAML,
+ * Gson and Guava). All plugins share them through one parent, so their manifests and tabs are the same classes the
+ * application knows.
+ * <p>
+ * Closing the loader releases the jar. Once nothing refers to the plugin's objects anymore, its classes can be
+ * unloaded too.
+ */
+public class PluginClassLoader extends URLClassLoader {
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    /// The package plugins build against. Its subpackages aren't part of the API.
+    private static final String API_PACKAGE = ConfigManifest.class.getPackageName();
+
+    /// Packages a Spigot server provides, so plugins compile against them without bundling them. A manifest saving
+    /// through YamlConfiguration needs them here too.
+    private static final String[] SERVER_PACKAGES = {
+            "org.bukkit.", "org.spigotmc.", "net.md_5.bungee.", "org.yaml.snakeyaml.", "com.google.gson.", "com.google.common."
+    };
+
+    /// Shared by every plugin, only lets through what plugins are meant to use.
+    private static final ClassLoader API = new ApiClassLoader(ConfigManifest.class.getClassLoader());
+
+    /// The jar's file name, used to tell plugins apart.
+    private final String _pluginName;
+
+    /**
+     * Creates the loader for a plugin.
+     * @param jar The plugin's jar.
+     * @throws MalformedURLException Will throw if the jar's path can't be made into a URL.
+     */
+    public PluginClassLoader(File jar) throws MalformedURLException {
+        super("plugin:" + jar.getName(), new URL[]{jar.toURI().toURL()}, API);
+        _pluginName = jar.getName();
+    }
+
+    /**
+     * Gets the name of the plugin, which is the file name of its jar.
+     */
+    public String getPluginName() {
+        return _pluginName;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        // The API has to stay the application's own, or plugins couldn't be handed to it.
+        if (isShared(name)) return super.loadClass(name, resolve);
+
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> cls = findLoadedClass(name);
+            if (cls == null) {
+                try {
+                    cls = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    cls = getParent().loadClass(name);
+                }
+            }
+
+            if (resolve) resolveClass(cls);
+            return cls;
+        }
+    }
+
+    @Override
+    public URL getResource(String name) {
+        URL url = findResource(name);
+        return url != null ? url : getParent().getResource(name);
+    }
+
+    @Override
+    public Enumeration<URL> getResources(String name) throws IOException {
+        ArrayList<URL> urls = Collections.list(findResources(name));
+        urls.addAll(Collections.list(getParent().getResources(name)));
+        return Collections.enumeration(urls);
+    }
+
+    /**
+     * Whether a class must come from the parent rather than the plugin's jar.
+     */
+    private static boolean isShared(String name) {
+        return name.startsWith("java.") || isApi(name);
+    }
+
+    /**
+     * Whether a class is directly in the application's API package.
+     */
+    private static boolean isApi(String name) {
+        return name.startsWith(API_PACKAGE) && name.lastIndexOf('.') == API_PACKAGE.length();
+    }
+
+    /**
+     * Whether a class is part of what a Spigot server provides to its plugins.
+     */
+    private static boolean isServer(String name) {
+        for (String prefix : SERVER_PACKAGES) {
+            if (name.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * The parent of every plugin loader. Gives plugins the JDK, JavaFX, the API package and the server's packages, and
+     * hides the rest of the application.
+     */
+    private static final class ApiClassLoader extends ClassLoader {
+
+        static {
+            ClassLoader.registerAsParallelCapable();
+        }
+
+        /// Where the application's classes come from.
+        private final ClassLoader _application;
+
+        private ApiClassLoader(ClassLoader application) {
+            super("spigotconfig-api", ClassLoader.getPlatformClassLoader());
+            _application = application;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            if (isApi(name) || name.startsWith("javafx.") || isServer(name)) {
+                return _application.loadClass(name);
+            }
+            throw new ClassNotFoundException(name);
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package com.copperpenguin96.spigotconfig;
+
+import javafx.application.Platform;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Scans the plugins folder for jars that provide a {@link ConfigManifest}. Each jar is probed and its manifest class
+ * loaded on its own worker (virtual thread) so the window can paint right away. The manifest itself is created on the
+ * FX thread, as creating it builds the plugin's eager tabs, scenes and all.
+ * <p>
+ * Every plugin that integrates gets its own {@link PluginClassLoader}, kept open while its manifest is in use and
+ * closed when it's unloaded. Jars that don't integrate have theirs closed straight away, so a large plugins folder
+ * doesn't keep a file open, or classes loaded, per jar. Jars that are replaced, added or removed while the
+ * application runs can be picked up with {@link #refresh(List)}, without touching the other plugins.
+ */
+public class PluginDiscovery {
+
+    /**
+     * A jar whose manifest class was found, waiting on the FX thread to create the manifest.
+     * @param jar The plugin's jar.
+     * @param size The size of the jar when it was probed.
+     * @param modified The timestamp of the jar when it was probed.
+     * @param loader Loaded the manifest class.
+     * @param cls The manifest class, or the class providing it.
+     */
+    private record Candidate(File jar, long size, long modified, PluginClassLoader loader, Class<?> cls) { }
+
+    /**
+     * A plugin whose manifest is in use.
+     * @param jar The plugin's jar.
+     * @param size The size of the jar when it was loaded.
+     * @param modified The timestamp of the jar when it was loaded.
+     * @param loader Loaded the plugin's classes. Closed when the plugin is unloaded.
+     * @param manifest The plugin's manifest.
+     */
+    public record Plugin(File jar, long size, long modified, PluginClassLoader loader, ConfigManifest manifest) {
+
+        /**
+         * Whether the jar was replaced or removed since it was loaded.
+         */
+        public boolean isStale() {
+            return !jar.isFile() || jar.length() != size || jar.lastModified() != modified;
+        }
+    }
+
+    /// The folder the plugins are located in.
+    private final File _pluginDir;
+
+    /// Called on the FX thread for every manifest that was found.
+    private final Consumer<ConfigManifest> _onFound;
+
+    /// Remembers what was found in each jar so unchanged jars don't need to be opened again.
+    private final PluginIndex _index;
+
+    /// Creates the manifests, giving up on plugins that take too long.
+    private final PluginSupervisor _supervisor;
+
+    /// The plugins in use, by jar name.
+    private final ConcurrentHashMap<String, Plugin> _loaded = new ConcurrentHashMap<>();
+
+    /// Called on the FX thread for every manifest that was unloaded.
+    private Consumer<ConfigManifest> _onUnloaded = manifest -> { };
+
+    /**
+     * Creates the discovery for the specified plugin folder.
+     * @param pluginDir The plugins folder.
+     * @param onFound Called on the FX thread for each manifest found.
+     */
+    public PluginDiscovery(File pluginDir, Consumer<ConfigManifest> onFound) {
+        this(pluginDir, onFound, new PluginSupervisor());
+    }
+
+    /**
+     * Creates the discovery for the specified plugin folder.
+     * @param pluginDir The plugins folder.
+     * @param onFound Called on the FX thread for each manifest found.
+     * @param supervisor Creates the manifests, with its deadline for constructing.
+     */
+    public PluginDiscovery(File pluginDir, Consumer<ConfigManifest> onFound, PluginSupervisor supervisor) {
+        this(pluginDir, onFound, PluginIndex.DEFAULT_LOCATION, supervisor);
+    }
+
+    /**
+     * Creates the discovery for the specified plugin folder.
+     * @param pluginDir The plugins folder.
+     * @param onFound Called on the FX thread for each manifest found.
+     * @param indexLocation Where the plugin index is kept.
+     * @param supervisor Creates the manifests, with its deadline for constructing.
+     */
+    public PluginDiscovery(File pluginDir, Consumer<ConfigManifest> onFound, Path indexLocation, PluginSupervisor supervisor) {
+        _pluginDir = pluginDir;
+        _onFound = onFound;
+        _index = PluginIndex.load(indexLocation);
+        _supervisor = supervisor;
+    }
+
+    /**
+     * Starts the discovery in the background. Returns right away.
+     * @return False if there is no plugins folder to scan.
+     */
+    public boolean start() {
+        File[] files = _pluginDir.listFiles();
+        if (files == null) return false;
+
+        ArrayList<File> jars = new ArrayList<>();
+        for (File file : files) {
+            if (isJar(file)) jars.add(file);
+        }
+
+        Thread.ofVirtual().name("plugin-discovery").start(() -> scan(jars));
+        return true;
+    }
+
+    /**
+     * Sets what to call on the FX thread when a plugin is unloaded, to take its tabs away.
+     * @param onUnloaded Given the plugin's manifest.
+     */
+    public void setOnUnloaded(Consumer<ConfigManifest> onUnloaded) {
+        _onUnloaded = onUnloaded;
+    }
+
+    /**
+     * Gets the plugins in use.
+     */
+    public List<Plugin> getLoaded() {
+        return new ArrayList<>(_loaded.values());
+    }
+
+    /**
+     * Gets a plugin in use.
+     * @param plugin The plugin's jar name.
+     * @return The plugin, or null if it isn't loaded.
+     */
+    public Plugin getLoaded(String plugin) {
+        return _loaded.get(plugin);
+    }
+
+    /**
+     * Works out which jars need to be loaded, reloaded or unloaded after files changed.
+     * @param paths The paths that changed. The plugins folder itself means anything in it may have changed.
+     * @return The jars that were added, replaced or removed, as far as the loaded plugins go. Jars that didn't
+     * integrate before are included whenever they changed, they may now.
+     */
+    public List<File> getChanged(Collection<Path> paths) {
+        Path dir = _pluginDir.toPath().toAbsolutePath().normalize();
+        LinkedHashSet<File> changed = new LinkedHashSet<>();
+        for (Path path : paths) {
+            path = path.toAbsolutePath().normalize();
+            if (path.equals(dir)) {
+                // Lost track of what happened, look at everything and let the index tell what's new.
+                File[] files = _pluginDir.listFiles();
+                if (files != null) {
+                    for (File file : files) {
+                        File jar = new File(_pluginDir, file.getName());
+                        if (isJar(jar) && isChanged(jar, true)) changed.add(jar);
+                    }
+                }
+                for (Plugin plugin : _loaded.values()) {
+                    if (plugin.isStale()) changed.add(plugin.jar());
+                }
+            } else if (dir.equals(path.getParent()) && isJar(path.toFile())) {
+                File jar = new File(_pluginDir, path.getFileName().toString());
+                if (isChanged(jar, false)) changed.add(jar);
+            }
+        }
+        return new ArrayList<>(changed);
+    }
+
+    /**
+     * Whether a jar differs from what's loaded from it.
+     * @param jar The jar.
+     * @param askIndex Whether a jar that isn't loaded only counts if the index doesn't know it as it is.
+     */
+    private boolean isChanged(File jar, boolean askIndex) {
+        Plugin plugin = _loaded.get(jar.getName());
+        if (plugin != null) return plugin.isStale();
+        if (!jar.isFile()) return false;
+        if (!askIndex) return true;
+
+        try {
+            return _index.lookup(jar) == null;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Picks up jars that changed in the background: removed ones are unloaded, replaced ones reloaded and new ones
+     * loaded. Plugins whose jars didn't change are left alone, tabs and all.
+     * @param jars The jars, see {@link #getChanged(Collection)}.
+     */
+    public void refresh(List<File> jars) {
+        Thread.ofVirtual().name("plugin-refresh").start(() -> {
+            try (StartupTrace.Timer timer = StartupTrace.begin("plugin", "Refresh " + jars.size() + " jars")) {
+                for (File jar : jars) {
+                    Plugin plugin = _loaded.get(jar.getName());
+                    if (plugin != null) {
+                        if (!plugin.isStale()) continue; // already picked up
+                        unload(jar.getName());
+                    }
+                    if (!jar.isFile()) continue;
+
+                    _supervisor.release(jar.getName()); // a new version gets a new chance
+                    load(jar);
+                }
+                _index.save();
+            }
+        });
+    }
+
+    /**
+     * Stops using a plugin: its tabs are taken away and its class loader is closed, so its jar is no longer open and
+     * its classes can be unloaded.
+     * @param plugin The plugin's jar name.
+     * @return The plugin, or null if it wasn't loaded.
+     */
+    public Plugin unload(String plugin) {
+        Plugin loaded = _loaded.remove(plugin);
+        if (loaded == null) return null;
+
+        close(loaded.loader());
+        Platform.runLater(() -> _onUnloaded.accept(loaded.manifest()));
+        return loaded;
+    }
+
+    /**
+     * Unloads a plugin and loads its jar again in the background, picking up a new version of it. A quarantined
+     * plugin is given another chance.
+     * @param plugin The plugin's jar name.
+     * @return False if the plugin wasn't loaded.
+     */
+    public boolean reload(String plugin) {
+        Plugin loaded = unload(plugin);
+        if (loaded == null) return false;
+
+        _supervisor.release(plugin);
+        Thread.ofVirtual().name("plugin-reload").start(() -> load(loaded.jar()));
+        return true;
+    }
+
+    /**
+     * Unloads every plugin.
+     */
+    public void unloadAll() {
+        for (String plugin : new ArrayList<>(_loaded.keySet())) {
+            unload(plugin);
+        }
+    }
+
+    /**
+     * Probes every jar concurrently and waits for all of them to finish.
+     * @param jars The jars to probe.
+     */
+    private void scan(ArrayList<File> jars) {
+        try (StartupTrace.Timer all = StartupTrace.begin("startup", "Scan plugins")) {
+            try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (File jar : jars) {
+                    workers.submit(() -> load(jar));
+                }
+            }
+
+            _index.retain(jars);
+            _index.save();
+        }
+    }
+
+    /**
+     * Probes a single jar and, if it has a manifest class, has the FX thread create the manifest and add its tabs.
+     * @param jar The jar.
+     */
+    private void load(File jar) {
+        Candidate candidate;
+        try (StartupTrace.Timer timer = StartupTrace.begin("plugin", jar.getName())) {
+            candidate = probe(jar);
+        }
+        if (candidate == null) return;
+
+        Platform.runLater(() -> install(candidate));
+    }
+
+    /**
+     * Creates a plugin's manifest and hands it on. Called on the FX thread.
+     * @param candidate The jar and its manifest class.
+     */
+    private void install(Candidate candidate) {
+        File jar = candidate.jar();
+        ConfigManifest manifest;
+        try {
+            manifest = construct(jar, candidate.cls());
+        } catch (PluginSupervisor.PluginException e) {
+            System.out.println(e.getMessage());
+            if (e.getCause() != null) e.getCause().printStackTrace();
+            close(candidate.loader());
+            return;
+        }
+
+        Plugin plugin = new Plugin(jar, candidate.size(), candidate.modified(), candidate.loader(), manifest);
+        Plugin previous = _loaded.put(jar.getName(), plugin);
+        if (previous != null) {
+            // Loaded twice, by a reload racing the scan. Keep the newest.
+            close(previous.loader());
+            _onUnloaded.accept(previous.manifest());
+        }
+        try (StartupTrace.Timer timer = StartupTrace.begin("tab", "Add tabs of " + jar.getName())) {
+            _onFound.accept(manifest);
+        }
+    }
+
+    /**
+     * Looks inside a single jar for the plugin's SpigotConfig class and loads it. Jars the index already knows about
+     * skip reading plugin.yml, and jars known not to have a manifest aren't opened at all. New jars are probed through
+     * their zip directory first, so a class loader is only built for jars that actually ship a SpigotConfig. The class
+     * loader is closed again unless the class is found.
+     * @param file The jar file.
+     * @return The jar and its class, or null if the plugin doesn't support this application.
+     */
+    private Candidate probe(File file) {
+        ConfigEvents.PluginProbed probed = new ConfigEvents.PluginProbed();
+        probed.begin();
+        PluginClassLoader classLoader = null;
+        // Stamped before reading, so a jar replaced meanwhile still counts as changed.
+        long size = file.length();
+        long modified = file.lastModified();
+        try {
+            PluginIndex.Entry entry = _index.lookup(file);
+            probed.fromIndex = entry != null;
+            if (entry != null && !entry.hasManifest()) return null; // known not to support us
+
+            String mainPackage = entry != null ? entry.mainPackage() : null;
+            String provider = entry != null && !entry.provider().isEmpty() ? entry.provider() : null;
+            boolean probedJar = false;
+            if (entry == null) {
+                JarProbe.Result result = JarProbe.probe(file);
+                if (result != null) {
+                    probedJar = true;
+                    probed.mainPackage = result.mainPackage();
+                    probed.provider = result.provider();
+                    if (!result.integrates()) {
+                        _index.record(file, result.mainPackage(), false, null);
+                        return null;
+                    }
+
+                    mainPackage = result.mainPackage();
+                    provider = result.provider();
+                }
+            }
+
+            // Each plugin gets a loader of its own, so it can be closed and its classes unloaded.
+            classLoader = new PluginClassLoader(file);
+            if (entry == null && !probedJar) {
+                // The probe couldn't make sense of this jar, let the class loader and SnakeYAML have a go.
+                provider = readProvider(classLoader);
+                if (provider == null) mainPackage = readMainPackage(classLoader);
+            }
+            probed.mainPackage = mainPackage;
+            probed.provider = provider;
+
+            // A declared provider is used as is, the SpigotConfig convention is only for plugins that don't declare one.
+            Class<?> cls = provider != null ? findProviderClass(classLoader, provider) : findManifestClass(classLoader, mainPackage);
+
+            if (entry == null) {
+                _index.record(file, mainPackage, cls != null, provider);
+            }
+
+            if (cls == null) return null;
+
+            probed.hasManifest = true;
+            commit(probed, file); // constructing the manifest is its own event
+            Candidate candidate = new Candidate(file, size, modified, classLoader, cls);
+            classLoader = null; // in use now
+            return candidate;
+        } catch (Exception e) {
+            e.printStackTrace(); // can't load, or some other goofy issue
+            return null;
+        } finally {
+            close(classLoader);
+            if (!probed.hasManifest) commit(probed, file);
+        }
+    }
+
+    /**
+     * Closes a plugin's class loader, which closes its jar.
+     * @param classLoader The loader, or null.
+     */
+    private static void close(PluginClassLoader classLoader) {
+        if (classLoader == null) return;
+
+        try {
+            classLoader.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Records the probe of a jar, if a recording wants it.
+     */
+    private static void commit(ConfigEvents.PluginProbed event, File file) {
+        if (!event.shouldCommit()) return;
+
+        event.plugin = file.getName();
+        event.jarSize = file.length();
+        event.commit();
+    }
+
+    /**
+     * Creates the plugin's manifest, which also builds the tabs it doesn't register lazily. Runs on the FX thread, as
+     * tabs load fxml and may use anything JavaFX has, so going over the supervisor's deadline is only reported.
+     * @param file The plugin's jar.
+     * @param cls The plugin's SpigotConfig class.
+     * @return The manifest.
+     * @throws PluginSupervisor.PluginException Will throw if the class can't be created.
+     */
+    private ConfigManifest construct(File file, Class<?> cls) throws PluginSupervisor.PluginException {
+        ConfigEvents.ManifestConstructed event = new ConfigEvents.ManifestConstructed();
+        event.begin();
+        ConfigManifest manifest = null;
+        try {
+            manifest = _supervisor.callHere(file.getName(), PluginSupervisor.Operation.CONSTRUCT, () -> {
+                try {
+                    return instantiate(cls);
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    // What the plugin threw, rather than reflection's wrapper.
+                    Throwable cause = e instanceof InvocationTargetException && e.getCause() != null ? e.getCause() : e;
+                    throw new IllegalStateException(cause.toString(), cause);
+                }
+            });
+            return manifest;
+        } finally {
+            if (event.shouldCommit()) {
+                event.plugin = file.getName();
+                event.manifestClass = cls.getName();
+                event.tabs = manifest == null ? 0 : manifest.getTabDescriptors().size();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Creates a manifest the way ServiceLoader creates providers: with a public static provider() method if the class
+     * has one, otherwise with its public constructor that takes no arguments.
+     * @param cls The manifest class, or the provider class.
+     * @return The manifest.
+     * @throws ReflectiveOperationException Will throw if the class can't be created.
+     */
+    private static ConfigManifest instantiate(Class<?> cls) throws ReflectiveOperationException {
+        Method provider = findProviderMethod(cls);
+        if (provider != null) return (ConfigManifest) provider.invoke(null);
+
+        return (ConfigManifest) cls.getConstructor().newInstance();
+    }
+
+    /**
+     * Finds the public static provider() method of a class, if it has one that returns a ConfigManifest.
+     */
+    private static Method findProviderMethod(Class<?> cls) {
+        for (Method method : cls.getMethods()) {
+            if (method.getName().equals("provider") && method.getParameterCount() == 0
+                    && Modifier.isStatic(method.getModifiers())
+                    && ConfigManifest.class.isAssignableFrom(method.getReturnType())) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Loads the ConfigManifest provider a plugin declares.
+     * @param classLoader The class loader of the plugin's jar.
+     * @param provider The provider's class name.
+     * @return The class, or null if it's missing or neither is nor provides a ConfigManifest.
+     */
+    private static Class<?> findProviderClass(ClassLoader classLoader, String provider) {
+        try {
+            Class<?> cls = classLoader.loadClass(provider);
+            if (ConfigManifest.class.isAssignableFrom(cls) || findProviderMethod(cls) != null) return cls;
+
+            System.out.println(provider + " was declared as a ConfigManifest but isn't one");
+            return null;
+        } catch (ClassNotFoundException | LinkageError e) {
+            System.out.println(provider + " was declared as a ConfigManifest but couldn't be loaded: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the ConfigManifest provider a plugin declares in META-INF/services, for jars the probe couldn't read.
+     * @param classLoader The class loader of the plugin's jar.
+     * @return The provider's class name, or null if none is declared.
+     */
+    private static String readProvider(ClassLoader classLoader) {
+        try (InputStream is = classLoader.getResourceAsStream(JarProbe.SERVICE_FILE)) {
+            if (is == null) return null;
+            return JarProbe.readProvider(is.readAllBytes());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds the configuration class, it must be in the main package and called SpigotConfig.
+     * @param classLoader The class loader of the plugin's jar.
+     * @param mainPackage The main package of the plugin.
+     * @return The class, or null if it's missing or doesn't extend ConfigManifest.
+     */
+    private static Class<?> findManifestClass(ClassLoader classLoader, String mainPackage) {
+        if (mainPackage == null) return null; // nothing found.
+
+        try {
+            Class<?> cls = classLoader.loadClass(mainPackage + ".SpigotConfig");
+            if (!ConfigManifest.class.isAssignableFrom(cls)) {
+                System.out.println("Didn't find SpigotConfig");
+                return null; // They didn't extend from ConfigManifest. Must extend
+            }
+
+            return cls;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null; // they don't have it, or it's not in the right place
+        }
+    }
+
+    /**
+     * Used to read the main package of plugins installed to Spigot. This is useful so we can find what plugins support this application.
+     * @param clLoader The class loader of the plugin's jar.
+     * @return The main package, or null if it couldn't be read.
+     */
+    private static String readMainPackage(ClassLoader clLoader) {
+        // Read the main package from the plugin itself
+        try (InputStream is = clLoader.getResourceAsStream("plugin.yml")) {
+            if (is == null) return null;
+
+            Yaml yaml = new Yaml();
+            Map<String, Object> objMap = yaml.load(is);
+            if (objMap == null || objMap.get("main") == null) return null;
+
+            String mainClass = objMap.get("main").toString();
+            int lastDot = mainClass.lastIndexOf(".");
+            if (lastDot < 0) return null;
+            return mainClass.substring(0, lastDot);
+        } catch (YAMLException | IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the file has a jar extension.
+     * @param file The file.
+     * @return True if it is a jar.
+     */
+    private static boolean isJar(File file) {
+        String fileName = file.getName();
+        int lastIndex = fileName.lastIndexOf(".");
+        if (lastIndex < 0) return false;
+
+        return fileName.substring(lastIndex + 1).equalsIgnoreCase("jar");
+    }
+}
@@ -0,0 +1,200 @@
+package com.copperpenguin96.spigotconfig;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk index of what was found in each plugin jar the last time it was scanned. Jars that haven't changed
+ * since then can skip opening and class loading entirely, so a launch only costs an index read plus a stat per jar.
+ */
+public class PluginIndex {
+
+    /// Where the index is kept, relative to the server's root directory.
+    public static final Path DEFAULT_LOCATION = Path.of(".spigotconfig", "plugin-index.bin");
+
+    /// Identifies the file as a plugin index.
+    private static final int MAGIC = 0x53435049; // SCPI
+
+    /// Bumped whenever the layout of the file changes, older files are thrown away.
+    private static final int VERSION = 2;
+
+    /**
+     * What is remembered about a single jar.
+     * @param size The size of the jar in bytes.
+     * @param modified The last modified time of the jar in milliseconds.
+     * @param hash The CRC32C of the jar's contents.
+     * @param mainPackage The main package read from plugin.yml, or an empty string if there wasn't one.
+     * @param hasManifest Whether the jar has a ConfigManifest, declared or in its main package.
+     * @param provider The ConfigManifest class the jar declares, or an empty string if it doesn't declare one.
+     */
+    public record Entry(long size, long modified, long hash, String mainPackage, boolean hasManifest, String provider) { }
+
+    /// The file the index is read from and written to.
+    private final Path _location;
+
+    /// The entries, keyed by jar file name.
+    private final Map<String, Entry> _entries = new ConcurrentHashMap<>();
+
+    /// Set when something was added, refreshed or removed since the index was read.
+    private volatile boolean _dirty = false;
+
+    private PluginIndex(Path location) {
+        _location = location;
+    }
+
+    /**
+     * Reads the index from the specified location. A missing, outdated or unreadable index just comes back empty.
+     * @param location The index file.
+     * @return The index.
+     */
+    public static PluginIndex load(Path location) {
+        PluginIndex index = new PluginIndex(location);
+        if (!Files.isRegularFile(location)) return index;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(location)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return index;
+
+            int count = in.readInt();
+            for (int x = 0; x < count; x++) {
+                String name = in.readUTF();
+                Entry entry = new Entry(in.readLong(), in.readLong(), in.readLong(), in.readUTF(), in.readBoolean(), in.readUTF());
+                index._entries.put(name, entry);
+            }
+        } catch (IOException e) {
+            System.out.println("Unable to read plugin index, rescanning all plugins");
+            index._entries.clear();
+        }
+
+        return index;
+    }
+
+    /**
+     * Finds what was recorded for the jar, as long as the jar hasn't changed since. A jar with a new timestamp but the
+     * same size and contents is still a hit, its timestamp is refreshed.
+     * @param jar The jar file.
+     * @return The entry, or null if the jar is new or has changed.
+     * @throws IOException Will throw if the jar can't be read while comparing contents.
+     */
+    public Entry lookup(File jar) throws IOException {
+        Entry entry = _entries.get(jar.getName());
+        if (entry == null) return null;
+
+        long size = jar.length();
+        long modified = jar.lastModified();
+        if (entry.size() != size) return null;
+        if (entry.modified() == modified) return entry;
+
+        // Only the timestamp moved, check if the contents did too.
+        if (hash(jar) != entry.hash()) return null;
+
+        Entry refreshed = new Entry(size, modified, entry.hash(), entry.mainPackage(), entry.hasManifest(), entry.provider());
+        _entries.put(jar.getName(), refreshed);
+        _dirty = true;
+        return refreshed;
+    }
+
+    /**
+     * Records what was found in the jar.
+     * @param jar The jar file.
+     * @param mainPackage The main package, or null if there wasn't one.
+     * @param hasManifest Whether the jar has a ConfigManifest, declared or in its main package.
+     * @param provider The ConfigManifest class the jar declares, or null if it doesn't declare one.
+     * @throws IOException Will throw if the jar can't be read for hashing.
+     */
+    public void record(File jar, String mainPackage, boolean hasManifest, String provider) throws IOException {
+        Entry entry = new Entry(jar.length(), jar.lastModified(), hash(jar),
+                mainPackage == null ? "" : mainPackage, hasManifest, provider == null ? "" : provider);
+        _entries.put(jar.getName(), entry);
+        _dirty = true;
+    }
+
+    /**
+     * Drops entries of jars that are no longer in the plugins folder.
+     * @param jars The jars currently in the plugins folder.
+     */
+    public void retain(Collection<File> jars) {
+        HashSet<String> names = new HashSet<>();
+        for (File jar : jars) {
+            names.add(jar.getName());
+        }
+
+        if (_entries.keySet().retainAll(names)) {
+            _dirty = true;
+        }
+    }
+
+    /**
+     * Writes the index back to disk if anything changed. Written to a temporary file first so a crash never leaves
+     * a half written index behind.
+     */
+    public synchronized void save() {
+        if (!_dirty) return;
+        // Cleared first, so anything recorded while writing is saved next time.
+        _dirty = false;
+
+        // A copy, so the count matches the entries even if more are recorded meanwhile.
+        HashMap<String, Entry> entries = new HashMap<>(_entries);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(entries.size());
+
+                for (Map.Entry<String, Entry> pair : entries.entrySet()) {
+                    Entry entry = pair.getValue();
+                    out.writeUTF(pair.getKey());
+                    out.writeLong(entry.size());
+                    out.writeLong(entry.modified());
+                    out.writeLong(entry.hash());
+                    out.writeUTF(entry.mainPackage());
+                    out.writeBoolean(entry.hasManifest());
+                    out.writeUTF(entry.provider());
+                }
+            }
+
+            Files.createDirectories(_location.getParent());
+            AtomicWriter.write(_location, bytes.toByteArray());
+        } catch (IOException e) {
+            _dirty = true;
+            System.out.println("Unable to save plugin index");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Hashes the contents of the specified file.
+     * @param file The file.
+     * @return The CRC32C of the file.
+     * @throws IOException Will throw if the file can't be read.
+     */
+    private static long hash(File file) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,344 @@
+package com.copperpenguin96.spigotconfig;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs the calls the application makes into plugins (creating their manifest, building their tabs, saving) so that a
+ * plugin that hangs or crawls can't take the application down with it. Each call has a deadline; a call on a worker
+ * that goes over it is cancelled and the plugin quarantined, so it isn't called again until it's released. Calls that
+ * must stay on the FX thread are only timed. The time every call took is kept in a histogram per plugin, so slow
+ * integrations stand out even when they stay within their budget.
+ * <p>
+ * Deadlines can be changed with system properties, in milliseconds, like {@code -Dspigotconfig.plugin.save.timeout=5000}.
+ */
+public class PluginSupervisor {
+
+    /**
+     * The calls made into a plugin.
+     */
+    public enum Operation {
+        /// Creating the plugin's SpigotConfig, which also builds its eager tabs. Runs on the FX thread, so it's only timed.
+        CONSTRUCT("construct", Duration.ofSeconds(10)),
+        /// Building a lazy tab the first time it's opened. Runs on the FX thread, so it's only timed, never cut off.
+        BUILD_TAB("tab", Duration.ofSeconds(2)),
+        /// The plugin's save().
+        SAVE("save", SavePipeline.DEFAULT_PLUGIN_TIMEOUT);
+
+        private final String _property;
+        private final Duration _defaultDeadline;
+
+        Operation(String property, Duration defaultDeadline) {
+            _property = property;
+            _defaultDeadline = defaultDeadline;
+        }
+
+        /**
+         * Gets the deadline for the operation, from its system property if it's set.
+         */
+        public Duration getDefaultDeadline() {
+            String value = System.getProperty("spigotconfig.plugin." + _property + ".timeout");
+            if (value == null) return _defaultDeadline;
+
+            try {
+                return Duration.ofMillis(Long.parseLong(value.trim()));
+            } catch (NumberFormatException e) {
+                System.out.println("Ignoring spigotconfig.plugin." + _property + ".timeout, not a number of milliseconds: " + value);
+                return _defaultDeadline;
+            }
+        }
+    }
+
+    /**
+     * Thrown when a call into a plugin failed, went over its deadline or wasn't made because the plugin is quarantined.
+     */
+    public static class PluginException extends Exception {
+        public PluginException(String message) {
+            super(message);
+        }
+
+        public PluginException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * How long calls took, in buckets that each double the one before, from under 1ms to 16s and over.
+     */
+    public static final class Histogram {
+
+        /// Upper bounds of the buckets in milliseconds, the last bucket has no bound.
+        private static final long[] BOUNDS = { 1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024, 2048, 4096, 8192, 16384 };
+
+        private final long[] _counts = new long[BOUNDS.length + 1];
+        private long _total;
+        private long _failures;
+        private long _max;
+
+        synchronized void record(long nanos, boolean failed) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < BOUNDS.length && millis >= BOUNDS[bucket]) bucket++;
+
+            _counts[bucket]++;
+            _total++;
+            if (failed) _failures++;
+            _max = Math.max(_max, nanos);
+        }
+
+        public synchronized long getCount() {
+            return _total;
+        }
+
+        public synchronized long getFailures() {
+            return _failures;
+        }
+
+        /**
+         * Gets the longest call, in nanoseconds.
+         */
+        public synchronized long getMax() {
+            return _max;
+        }
+
+        /**
+         * Estimates a percentile from the buckets.
+         * @param percentile Between 0 and 1, like 0.95.
+         * @return The upper bound of the bucket the percentile falls in, in nanoseconds, or the longest call if that's
+         * lower. 0 if nothing was recorded.
+         */
+        public synchronized long getPercentile(double percentile) {
+            if (_total == 0) return 0;
+
+            long needed = (long) Math.ceil(percentile * _total);
+            long seen = 0;
+            for (int x = 0; x < _counts.length; x++) {
+                seen += _counts[x];
+                if (seen >= needed) {
+                    return x < BOUNDS.length ? Math.min(_max, TimeUnit.MILLISECONDS.toNanos(BOUNDS[x])) : _max;
+                }
+            }
+            return _max;
+        }
+
+        /**
+         * Gets the buckets as text, like "<1ms:3 <2ms:1 <64ms:2", leaving out the empty ones.
+         */
+        @Override
+        public synchronized String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (int x = 0; x < _counts.length; x++) {
+                if (_counts[x] == 0) continue;
+                if (!sb.isEmpty()) sb.append(' ');
+                sb.append(x < BOUNDS.length ? "<" + BOUNDS[x] + "ms" : ">=" + BOUNDS[BOUNDS.length - 1] + "ms")
+                        .append(':').append(_counts[x]);
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * The latency of one operation of one plugin.
+     * @param plugin The plugin's jar name.
+     * @param operation The operation.
+     * @param histogram How long its calls took.
+     */
+    public record Latency(String plugin, Operation operation, Histogram histogram) { }
+
+    /// How long each operation may take.
+    private final EnumMap<Operation, Duration> _deadlines = new EnumMap<>(Operation.class);
+
+    /// Call times, by plugin and operation.
+    private final ConcurrentHashMap<String, Map<Operation, Histogram>> _latency = new ConcurrentHashMap<>();
+
+    /// Plugins that won't be called again, with why.
+    private final ConcurrentHashMap<String, String> _quarantined = new ConcurrentHashMap<>();
+
+    /// Runs the calls, each on its own virtual thread so a hung plugin only ties up its own.
+    private final ExecutorService _workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("plugin-call-", 0).factory());
+
+    /**
+     * Creates a supervisor with the default deadlines, or those set through system properties.
+     */
+    public PluginSupervisor() {
+        for (Operation operation : Operation.values()) {
+            _deadlines.put(operation, operation.getDefaultDeadline());
+        }
+    }
+
+    /**
+     * Changes how long an operation may take.
+     * @param operation The operation.
+     * @param deadline How long it may take.
+     * @return This supervisor.
+     */
+    public PluginSupervisor setDeadline(Operation operation, Duration deadline) {
+        synchronized (_deadlines) {
+            _deadlines.put(operation, deadline);
+        }
+        return this;
+    }
+
+    public Duration getDeadline(Operation operation) {
+        synchronized (_deadlines) {
+            return _deadlines.get(operation);
+        }
+    }
+
+    /**
+     * Calls into a plugin on a worker thread and waits for it, up to the operation's deadline. A call that goes over
+     * is interrupted and the plugin is quarantined.
+     * @param plugin The plugin's jar name, see {@link #pluginOf(Class)}.
+     * @param operation What the call is.
+     * @param task The call.
+     * @return What the call returned.
+     * @throws PluginException Will throw if the call failed, went over its deadline, or the plugin is quarantined.
+     * @throws InterruptedException Will throw if the waiting thread is interrupted. The call is cancelled.
+     */
+    public <T> T call(String plugin, Operation operation, Callable<T> task) throws PluginException, InterruptedException {
+        checkQuarantine(plugin);
+
+        Duration deadline = getDeadline(operation);
+        long start = System.nanoTime();
+        Future<T> future = _workers.submit(task);
+        try {
+            T result = future.get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+            record(plugin, operation, System.nanoTime() - start, false);
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            record(plugin, operation, System.nanoTime() - start, true);
+            String reason = operation.name().toLowerCase() + " took longer than " + deadline.toMillis() + "ms";
+            quarantine(plugin, reason);
+            throw new PluginException(plugin + " was quarantined: " + reason);
+        } catch (ExecutionException e) {
+            record(plugin, operation, System.nanoTime() - start, true);
+            throw new PluginException(plugin + " failed to " + operation.name().toLowerCase() + ": " + e.getCause(), e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Calls into a plugin on the current thread, for calls that have to stay on the FX thread. The call can't be
+     * cancelled, so going over the deadline is only reported. It doesn't quarantine the plugin: a slow first build
+     * (classes loading from a cold disk) is no reason to stop saving the plugin's edits.
+     * @param plugin The plugin's jar name, see {@link #pluginOf(Class)}.
+     * @param operation What the call is.
+     * @param task The call.
+     * @return What the call returned.
+     * @throws PluginException Will throw if the call failed or the plugin is quarantined.
+     */
+    public <T> T callHere(String plugin, Operation operation, Supplier<T> task) throws PluginException {
+        checkQuarantine(plugin);
+
+        Duration deadline = getDeadline(operation);
+        long start = System.nanoTime();
+        try {
+            T result = task.get();
+            long elapsed = System.nanoTime() - start;
+            record(plugin, operation, elapsed, false);
+
+            if (elapsed > deadline.toNanos()) {
+                System.out.println(plugin + " was slow to " + operation.name().toLowerCase() + ": took "
+                        + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms, more than " + deadline.toMillis() + "ms");
+            }
+            return result;
+        } catch (RuntimeException e) {
+            record(plugin, operation, System.nanoTime() - start, true);
+            throw new PluginException(plugin + " failed to " + operation.name().toLowerCase() + ": " + e, e);
+        }
+    }
+
+    /**
+     * Stops calling a plugin.
+     * @param plugin The plugin's jar name.
+     * @param reason Why, shown to the user.
+     */
+    public void quarantine(String plugin, String reason) {
+        if (_quarantined.putIfAbsent(plugin, reason) == null) {
+            System.out.println("Quarantined plugin " + plugin + ": " + reason);
+        }
+    }
+
+    /**
+     * Lets a quarantined plugin be called again.
+     * @param plugin The plugin's jar name.
+     */
+    public void release(String plugin) {
+        _quarantined.remove(plugin);
+    }
+
+    public boolean isQuarantined(String plugin) {
+        return _quarantined.containsKey(plugin);
+    }
+
+    /**
+     * Gets the quarantined plugins, with why they were quarantined.
+     */
+    public Map<String, String> getQuarantined() {
+        return Collections.unmodifiableMap(_quarantined);
+    }
+
+    /**
+     * Gets how long each plugin's calls took, by plugin and operation.
+     */
+    public List<Latency> getLatency() {
+        ArrayList<Latency> latency = new ArrayList<>();
+        for (Map.Entry<String, Map<Operation, Histogram>> plugin : _latency.entrySet()) {
+            synchronized (plugin.getValue()) {
+                for (Map.Entry<Operation, Histogram> operation : plugin.getValue().entrySet()) {
+                    latency.add(new Latency(plugin.getKey(), operation.getKey(), operation.getValue()));
+                }
+            }
+        }
+        latency.sort((a, b) -> a.plugin().equals(b.plugin()) ? a.operation().compareTo(b.operation()) : a.plugin().compareTo(b.plugin()));
+        return latency;
+    }
+
+    /**
+     * Works out which plugin a class came from.
+     * @param cls A class loaded from a plugin jar.
+     * @return The jar's file name, or the class name if it didn't come from a jar.
+     */
+    public static String pluginOf(Class<?> cls) {
+        if (cls.getClassLoader() instanceof PluginClassLoader loader) return loader.getPluginName();
+
+        CodeSource source = cls.getProtectionDomain().getCodeSource();
+        if (source == null || source.getLocation() == null) return cls.getName();
+
+        try {
+            return new File(source.getLocation().toURI()).getName();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return cls.getName();
+        }
+    }
+
+    private void checkQuarantine(String plugin) throws PluginException {
+        String reason = _quarantined.get(plugin);
+        if (reason != null) throw new PluginException(plugin + " is quarantined: " + reason);
+    }
+
+    private void record(String plugin, Operation operation, long nanos, boolean failed) {
+        _latency.computeIfAbsent(plugin, key -> Collections.synchronizedMap(new EnumMap<>(Operation.class)))
+                .computeIfAbsent(operation, key -> new Histogram())
+                .record(nanos, failed);
+    }
+}
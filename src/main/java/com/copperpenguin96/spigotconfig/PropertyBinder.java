@@ -0,0 +1,280 @@
+package com.copperpenguin96.spigotconfig;
+
+import javafx.beans.Observable;
+import javafx.scene.control.*;
+import javafx.scene.control.SpinnerValueFactory.IntegerSpinnerValueFactory;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Connects properties to the controls that show them. The way a value is read from and written to a control comes
+ * from the control's kind and the property's type in the schema, so binding a property is a single call and every
+ * change is reported to a {@link ChangeTracker}. Spinner ranges, tooltips and defaults come from the schema too.
+ */
+public class PropertyBinder {
+
+    /**
+     * A property bound to a control.
+     * @param index The property's index in the schema.
+     * @param owner The control the value is shown in. Properties sharing a control are reverted together.
+     * @param reader Reads the value from the control, null if it has none.
+     * @param writer Writes a value to the control.
+     */
+    private record Binding(int index, Control owner, Supplier<String> reader, Consumer<String> writer) { }
+
+    /// What the properties look like.
+    private final PropertySchema _schema;
+
+    /// Told about every change.
+    private final ChangeTracker _tracker;
+
+    /// The bindings in the order they were made, which is also the order values are written in.
+    private final ArrayList<Binding> _bindings = new ArrayList<>();
+
+    /// The bindings of each control, mostly a single one.
+    private final IdentityHashMap<Control, ArrayList<Binding>> _byOwner = new IdentityHashMap<>();
+
+    /**
+     * Creates a binder for the specified schema.
+     * @param schema The schema.
+     * @param tracker Where changes are reported to.
+     */
+    public PropertyBinder(PropertySchema schema, ChangeTracker tracker) {
+        _schema = schema;
+        _tracker = tracker;
+    }
+
+    /**
+     * Binds a property to a check box, text field, combo box or spinner.
+     * @param key The property's key.
+     * @param control The control.
+     */
+    public void bind(String key, Control control) {
+        PropertyDef def = _schema.get(key);
+        if (def == null) {
+            unavailable(control);
+            return;
+        }
+
+        if (control instanceof CheckBox box) {
+            bind(key, box, box.selectedProperty(), () -> Boolean.toString(box.isSelected()),
+                    value -> box.setSelected(Boolean.parseBoolean(value)));
+        } else if (control instanceof TextField field) {
+            bind(key, field, field.textProperty(), field::getText, field::setText);
+        } else if (control instanceof ComboBox<?> cbo) {
+            bind(key, cbo, cbo.valueProperty(), () -> {
+                int sel = cbo.getSelectionModel().getSelectedIndex();
+                return sel < 0 ? null : def.getOptions()[sel];
+            }, value -> {
+                int option = def.indexOfOption(value);
+                if (option >= 0) cbo.getSelectionModel().select(option);
+            });
+        } else if (control instanceof Spinner<?> sp) {
+            setSpinnerRange(sp, def);
+            bind(key, sp, sp.valueProperty(), () -> sp.getValue() instanceof Number value ? Long.toString(value.longValue()) : null,
+                    value -> setSpinner(sp, def, value));
+        } else {
+            throw new IllegalArgumentException("Can't bind " + key + " to " + control.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Binds a property to a control that needs its own way of reading and writing values.
+     * @param key The property's key.
+     * @param owner The control the value is shown in.
+     * @param trigger Changes whenever the value might have changed.
+     * @param reader Reads the value, or returns null if there isn't one.
+     * @param writer Writes a value.
+     */
+    public void bind(String key, Control owner, Observable trigger, Supplier<String> reader, Consumer<String> writer) {
+        PropertyDef def = _schema.get(key);
+        if (def == null) {
+            unavailable(owner);
+            return;
+        }
+        if (owner.getTooltip() == null && !def.getTooltip().isEmpty()) {
+            owner.setTooltip(createTooltip(def));
+        }
+
+        Binding binding = new Binding(_schema.indexOf(key), owner, reader, writer);
+        _bindings.add(binding);
+
+        ArrayList<Binding> owned = _byOwner.computeIfAbsent(owner, ctrl -> new ArrayList<>());
+        if (owned.isEmpty()) addRevertMenu(owner);
+        owned.add(binding);
+
+        trigger.addListener(observable -> _tracker.update(binding.index(), reader.get()));
+        _tracker.update(binding.index(), reader.get());
+    }
+
+    /**
+     * Writes the values of the specified properties to their controls.
+     * @param source Where the values come from. Properties it doesn't have are left alone.
+     * @param keys Only these keys are written, or all of them if null.
+     */
+    public void apply(ServerProperties source, Set<String> keys) {
+        for (Binding binding : _bindings) {
+            if (!source.isSet(binding.index())) continue;
+            if (keys != null && !keys.contains(_schema.get(binding.index()).getKey())) continue;
+
+            binding.writer().accept(source.getString(binding.index()));
+        }
+    }
+
+    /**
+     * Writes the schema's defaults to every control.
+     */
+    public void applyDefaults() {
+        for (Binding binding : _bindings) {
+            binding.writer().accept(_schema.get(binding.index()).getDefaultValue());
+        }
+    }
+
+    /**
+     * Writes the values of changed properties into the specified properties. Properties that weren't changed are
+     * left as they are, so only what the user touched ends up being rewritten.
+     * @param target Where the values go.
+     */
+    public void collect(ServerProperties target) {
+        for (Binding binding : _bindings) {
+            if (!_tracker.isDirty(binding.index())) continue;
+
+            String value = binding.reader().get();
+            if (value != null) target.set(binding.index(), value);
+        }
+    }
+
+    /**
+     * Reads the value of a property from its control.
+     * @param index The property's index in the schema.
+     * @return The value, or null if the property isn't bound or has no value.
+     */
+    public String read(int index) {
+        for (Binding binding : _bindings) {
+            if (binding.index() == index) return binding.reader().get();
+        }
+
+        return null;
+    }
+
+    /**
+     * Puts a property back to the value it was loaded with, along with any other property shown in the same control.
+     * @param key The property's key.
+     */
+    public void revert(String key) {
+        int index = _schema.indexOf(key);
+        for (Binding binding : _bindings) {
+            if (binding.index() == index) {
+                revert(binding.owner());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Puts every property back to the value it was loaded with.
+     */
+    public void revertAll() {
+        for (Binding binding : _bindings) {
+            if (_tracker.isDirty(binding.index()) && _tracker.getBaseline(binding.index()) != null) {
+                binding.writer().accept(_tracker.getBaseline(binding.index()));
+            }
+        }
+    }
+
+    /**
+     * Reverts the properties shown in a control.
+     */
+    private void revert(Control owner) {
+        for (Binding binding : _byOwner.get(owner)) {
+            String baseline = _tracker.getBaseline(binding.index());
+            if (baseline != null) binding.writer().accept(baseline);
+        }
+    }
+
+    /**
+     * Gives the control a context menu item that reverts it. Text fields keep their usual clipboard items.
+     */
+    private void addRevertMenu(Control owner) {
+        MenuItem revert = new MenuItem("Revert to loaded value");
+        revert.setOnAction(event -> revert(owner));
+
+        ContextMenu menu = new ContextMenu();
+        if (owner instanceof TextInputControl input) {
+            MenuItem cut = new MenuItem("Cut");
+            cut.setOnAction(event -> input.cut());
+            MenuItem copy = new MenuItem("Copy");
+            copy.setOnAction(event -> input.copy());
+            MenuItem paste = new MenuItem("Paste");
+            paste.setOnAction(event -> input.paste());
+            menu.getItems().addAll(cut, copy, paste, new SeparatorMenuItem());
+        }
+        menu.getItems().add(revert);
+        menu.setOnShowing(event -> revert.setDisable(!isDirty(owner)));
+
+        owner.setContextMenu(menu);
+    }
+
+    private boolean isDirty(Control owner) {
+        for (Binding binding : _byOwner.get(owner)) {
+            if (_tracker.isDirty(binding.index())) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Disables a control whose property the server's version doesn't have.
+     */
+    private void unavailable(Control control) {
+        control.setDisable(true);
+        control.setTooltip(new Tooltip("Not available in Minecraft " + _schema.getVersion() + "."));
+    }
+
+    /**
+     * Creates the tooltip of a property from its description, noting the version it was added in.
+     */
+    private static Tooltip createTooltip(PropertyDef def) {
+        String text = def.getTooltip();
+        if (!def.getSince().isEmpty() && !def.getSince().equals("1.0")) {
+            text += "\n\nAdded in Minecraft " + def.getSince() + ".";
+        }
+
+        Tooltip tip = new Tooltip(text);
+        tip.setWrapText(true);
+        return tip;
+    }
+
+    /**
+     * Gives a spinner the property's range, starting at its default.
+     */
+    @SuppressWarnings("unchecked")
+    private static void setSpinnerRange(Spinner<?> sp, PropertyDef def) {
+        if (def.getType() == PropertyType.LONG) {
+            ((Spinner<Long>) sp).setValueFactory(new LongSpinnerValueFactory(def.getMin(), def.getMax(), def.getDefaultNumber()));
+        } else {
+            ((Spinner<Integer>) sp).setValueFactory(new IntegerSpinnerValueFactory((int) def.getMin(), (int) def.getMax(),
+                    (int) def.getDefaultNumber()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void setSpinner(Spinner<?> sp, PropertyDef def, String value) {
+        long number;
+        try {
+            number = Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            number = def.getDefaultNumber();
+        }
+
+        if (def.getType() == PropertyType.LONG) {
+            ((Spinner<Long>) sp).getValueFactory().setValue(number);
+        } else {
+            ((Spinner<Integer>) sp).getValueFactory().setValue((int) number);
+        }
+    }
+}
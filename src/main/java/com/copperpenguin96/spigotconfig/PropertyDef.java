@@ -0,0 +1,215 @@
+package com.copperpenguin96.spigotconfig;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Describes a single key of server.properties: its type, default, allowed range, description and the versions it
+ * was added and removed in.
+ */
+public final class PropertyDef {
+
+    /// The position of the property in its schema. Used to index the value arrays of ServerProperties.
+    private final int _index;
+
+    private final String _key;
+    private final byte[] _keyBytes;
+    private final PropertyType _type;
+    private final String _defaultValue;
+    private final long _min;
+    private final long _max;
+    private final String[] _options;
+    private final String _tooltip;
+    private final String _since;
+    private final String _removed;
+
+    /// The default value in the numeric form ServerProperties stores it in. Unused for strings.
+    private final long _defaultNumber;
+
+    /**
+     * Creates the definition of a property.
+     * @param index The position of the property in its schema.
+     * @param key The key as written in server.properties.
+     * @param type The type of the value.
+     * @param defaultValue The default value, as it would be written in server.properties.
+     * @param min The smallest allowed number, for int and long properties.
+     * @param max The largest allowed number, for int and long properties.
+     * @param options The allowed values, for enum properties.
+     */
+    public PropertyDef(int index, String key, PropertyType type, String defaultValue, long min, long max, String[] options) {
+        this(index, key, type, defaultValue, min, max, options, "", "", "");
+    }
+
+    /**
+     * Creates the definition of a property.
+     * @param index The position of the property in its schema.
+     * @param key The key as written in server.properties.
+     * @param type The type of the value.
+     * @param defaultValue The default value, as it would be written in server.properties.
+     * @param min The smallest allowed number, for int and long properties.
+     * @param max The largest allowed number, for int and long properties.
+     * @param options The allowed values, for enum properties.
+     * @param tooltip What the property does, shown when hovering its control.
+     * @param since The Minecraft version the property was added in, or an empty string if unknown.
+     * @param removed The Minecraft version the property was removed in, or an empty string if it's still around.
+     */
+    public PropertyDef(int index, String key, PropertyType type, String defaultValue, long min, long max, String[] options,
+                       String tooltip, String since, String removed) {
+        _index = index;
+        _key = key;
+        _keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        _type = type;
+        _defaultValue = defaultValue;
+        _min = min;
+        _max = max;
+        _options = options == null ? new String[0] : options;
+        _tooltip = tooltip == null ? "" : tooltip;
+        _since = since == null ? "" : since;
+        _removed = removed == null ? "" : removed;
+
+        switch (type) {
+            case BOOLEAN -> _defaultNumber = Boolean.parseBoolean(defaultValue) ? 1 : 0;
+            case INT, LONG -> _defaultNumber = Long.parseLong(defaultValue);
+            case ENUM -> _defaultNumber = Math.max(0, indexOfOption(defaultValue));
+            default -> _defaultNumber = 0;
+        }
+    }
+
+    public int getIndex() {
+        return _index;
+    }
+
+    public String getKey() {
+        return _key;
+    }
+
+    /// The key encoded as UTF-8, used by the parser to match keys without creating strings.
+    byte[] getKeyBytes() {
+        return _keyBytes;
+    }
+
+    public PropertyType getType() {
+        return _type;
+    }
+
+    public String getDefaultValue() {
+        return _defaultValue;
+    }
+
+    long getDefaultNumber() {
+        return _defaultNumber;
+    }
+
+    public long getMin() {
+        return _min;
+    }
+
+    public long getMax() {
+        return _max;
+    }
+
+    /**
+     * Gets the allowed values of an enum property.
+     */
+    public String[] getOptions() {
+        return _options;
+    }
+
+    /**
+     * Gets the description of the property, an empty string if there isn't one.
+     */
+    public String getTooltip() {
+        return _tooltip;
+    }
+
+    /**
+     * Gets the Minecraft version the property was added in, an empty string if unknown.
+     */
+    public String getSince() {
+        return _since;
+    }
+
+    /**
+     * Gets the Minecraft version the property was removed in, an empty string if it's still around.
+     */
+    public String getRemoved() {
+        return _removed;
+    }
+
+    /**
+     * Checks if servers of the specified version know this property.
+     * @param version The Minecraft version, like 1.20.4.
+     * @return True if it was added at or before the version and not removed yet.
+     */
+    public boolean isAvailableIn(String version) {
+        if (!_since.isEmpty() && ServerVersion.compare(_since, version) > 0) return false;
+        return _removed.isEmpty() || ServerVersion.compare(version, _removed) < 0;
+    }
+
+    /**
+     * Checks if a value is one the server accepts for this property.
+     * @param value The value, as it would be written in server.properties.
+     * @return Why the value isn't valid, or null if it is.
+     */
+    public String validate(String value) {
+        switch (_type) {
+            case BOOLEAN:
+                if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) return null;
+                return "must be true or false";
+            case INT:
+            case LONG:
+                try {
+                    long number = _type == PropertyType.INT ? Integer.parseInt(value) : Long.parseLong(value);
+                    if (number < _min || number > _max) return "must be between " + _min + " and " + _max;
+                    return null;
+                } catch (NumberFormatException e) {
+                    return "must be a whole number";
+                }
+            case ENUM:
+                if (indexOfOption(value) >= 0) return null;
+                return "must be one of " + String.join(", ", _options);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Finds the index of an enum option. Namespaced options (like minecraft:normal) also match without the namespace.
+     * @param value The value.
+     * @return The index of the option, or -1 if it isn't one.
+     */
+    public int indexOfOption(String value) {
+        for (int x = 0; x < _options.length; x++) {
+            String option = _options[x];
+            if (option.equals(value)) return x;
+
+            int colon = option.indexOf(':');
+            if (colon >= 0 && option.length() - colon - 1 == value.length() && option.endsWith(value)) return x;
+        }
+        return -1;
+    }
+
+    /**
+     * Same as {@link #indexOfOption(String)}, but reads the value straight from the file's bytes.
+     */
+    int indexOfOption(byte[] data, int start, int length) {
+        for (int x = 0; x < _options.length; x++) {
+            String option = _options[x];
+            int colon = option.indexOf(':');
+
+            if (regionMatches(option, 0, data, start, length)
+                    || (colon >= 0 && regionMatches(option, colon + 1, data, start, length))) {
+                return x;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(String option, int from, byte[] data, int start, int length) {
+        if (option.length() - from != length) return false;
+
+        for (int x = 0; x < length; x++) {
+            if (option.charAt(from + x) != (data[start + x] & 0xFF)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,393 @@
+package com.copperpenguin96.spigotconfig;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * The set of keys a server.properties file is expected to have, with their types, defaults and descriptions. The
+ * keys come from a data file, so supporting a new server version means editing that file rather than the code.
+ * <p>
+ * Keys are looked up through a perfect hash: when the schema is built a multiplier is searched for that sends every
+ * key to its own slot, so a lookup is one multiply, one slot and one compare, and the parser can match keys straight
+ * from the file's bytes.
+ */
+public final class PropertySchema {
+
+    /// The data file the vanilla schema is read from, next to this class.
+    private static final String VANILLA_RESOURCE = "server-properties.json";
+
+    /// The schema of the vanilla server.properties for the version this application targets. Built in memory from the
+    /// data file, so touching it never writes to the working directory.
+    public static final PropertySchema VANILLA = SchemaPack.bundled();
+
+    /// How many multipliers are tried before the table is made bigger. Doubling the table quickly beats searching long
+    /// for a multiplier that fits a crowded one.
+    private static final int SEED_ATTEMPTS = 64;
+
+    /// The biggest table tried, a million slots. Keys that don't fit one by then never will.
+    private static final int MAX_BITS = 20;
+
+    /// The Minecraft version the schema describes.
+    private final String _version;
+
+    private final PropertyDef[] _defs;
+
+    /// The perfect hash table, def index + 1 with 0 meaning empty. Its length is a power of two.
+    private final int[] _table;
+
+    /// The hash of the key in each table slot, so most misses don't need to compare keys.
+    private final int[] _hashes;
+
+    /// Odd multiplier that spreads the keys over the table without collisions.
+    private final int _seed;
+
+    /// How far the multiplied hash is shifted to get a slot, 32 minus the table's bit count.
+    private final int _shift;
+
+    /**
+     * Builds the schema and its hash table.
+     * @param seed A multiplier that is known to work for these keys (stored with a compiled schema pack), or 0 to
+     *             search for one.
+     * @param bits The table's bit count that goes with the seed.
+     * @throws IllegalArgumentException Will throw if two keys have the same hash, so no table can tell them apart, or if
+     *                                  no table up to the biggest size fits the keys.
+     */
+    private PropertySchema(String version, List<PropertyDef> defs, int seed, int bits) {
+        _version = version;
+        _defs = defs.toArray(new PropertyDef[0]);
+
+        int[] hashes = new int[_defs.length];
+        for (int x = 0; x < _defs.length; x++) {
+            hashes[x] = _defs[x].getKey().hashCode();
+        }
+
+        int[] sorted = hashes.clone();
+        Arrays.sort(sorted);
+        for (int x = 1; x < sorted.length; x++) {
+            if (sorted[x] == sorted[x - 1]) throw new IllegalArgumentException("Keys " + keysWithHash(sorted[x]) + " have the same hash");
+        }
+
+        int[] table = seed != 0 && bits > 0 && bits <= MAX_BITS ? place(hashes, seed, bits) : null;
+
+        // Fixed seed so the same keys always build the same table.
+        SplittableRandom random = new SplittableRandom(0x5C0FF1CEL);
+        if (table == null) bits = 32 - Integer.numberOfLeadingZeros(Math.max(4, _defs.length * 2) - 1);
+        while (table == null) {
+            for (int attempt = 0; attempt < SEED_ATTEMPTS && table == null; attempt++) {
+                seed = random.nextInt() | 1;
+                table = place(hashes, seed, bits);
+            }
+            if (table != null) break;
+
+            bits++; // too crowded, try a bigger table
+            if (bits > MAX_BITS) {
+                throw new IllegalArgumentException("No hash table of up to 2^" + MAX_BITS + " slots fits the " + _defs.length + " keys");
+            }
+        }
+
+        _table = table;
+        _seed = seed;
+        _shift = 32 - bits;
+        _hashes = new int[table.length];
+        for (int slot = 0; slot < table.length; slot++) {
+            if (table[slot] != 0) _hashes[slot] = hashes[table[slot] - 1];
+        }
+    }
+
+    /**
+     * Gets the keys that have a hash, for error messages.
+     */
+    private List<String> keysWithHash(int hash) {
+        ArrayList<String> keys = new ArrayList<>();
+        for (PropertyDef def : _defs) {
+            if (def.getKey().hashCode() == hash) keys.add(def.getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * Tries to give every hash its own slot.
+     * @return The table, or null if two hashes ended up in the same slot.
+     */
+    private static int[] place(int[] hashes, int seed, int bits) {
+        int[] table = new int[1 << bits];
+        for (int x = 0; x < hashes.length; x++) {
+            int slot = (hashes[x] * seed) >>> (32 - bits);
+            if (table[slot] != 0) return null;
+            table[slot] = x + 1;
+        }
+        return table;
+    }
+
+    /**
+     * Reads a schema from its data file. The file is a JSON object with the version and a list of properties, each
+     * having a key, type (boolean, int, long, enum or string), default, and optionally min, max, options, since,
+     * removed and tooltip.
+     * @param in The data file.
+     * @return The schema.
+     * @throws IOException Will throw if the file can't be read or isn't a valid schema.
+     */
+    public static PropertySchema load(InputStream in) throws IOException {
+        Builder builder = new Builder();
+
+        try {
+            JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "version" -> builder.version(reader.nextString());
+                    case "properties" -> {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            readProperty(reader, builder);
+                        }
+                        reader.endArray();
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return builder.build();
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw new IOException("Invalid schema: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a single property of the data file into the builder.
+     */
+    private static void readProperty(JsonReader reader, Builder builder) throws IOException {
+        String key = null;
+        PropertyType type = PropertyType.STRING;
+        String def = "";
+        Long min = null;
+        Long max = null;
+        String[] options = null;
+        String since = "";
+        String removed = "";
+        String tooltip = "";
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "key" -> key = reader.nextString();
+                case "type" -> type = PropertyType.valueOf(reader.nextString().toUpperCase(Locale.ROOT));
+                case "default" -> def = reader.nextString();
+                case "min" -> min = reader.nextLong();
+                case "max" -> max = reader.nextLong();
+                case "options" -> {
+                    ArrayList<String> list = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        list.add(reader.nextString());
+                    }
+                    reader.endArray();
+                    options = list.toArray(new String[0]);
+                }
+                case "since" -> since = reader.nextString();
+                case "removed" -> removed = reader.nextString();
+                case "tooltip" -> tooltip = reader.nextString();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (key == null) throw new IllegalArgumentException("property without a key");
+
+        // Ranges default to whatever the type can hold.
+        long low = switch (type) {
+            case INT -> Integer.MIN_VALUE;
+            case LONG -> Long.MIN_VALUE;
+            default -> 0;
+        };
+        long high = switch (type) {
+            case BOOLEAN -> 1;
+            case INT -> Integer.MAX_VALUE;
+            case LONG -> Long.MAX_VALUE;
+            case ENUM -> options == null ? 0 : options.length - 1;
+            default -> 0;
+        };
+
+        builder.add(key, type, def, min == null ? low : min, max == null ? high : max, options, tooltip, since, removed);
+    }
+
+    /**
+     * Reads the data file shipped with the application. It has every property it knows about, including ones older
+     * or newer servers don't have.
+     * @return The contents of the data file.
+     */
+    static byte[] readResource() {
+        try (InputStream in = PropertySchema.class.getResourceAsStream(VANILLA_RESOURCE)) {
+            if (in == null) throw new IllegalStateException(VANILLA_RESOURCE + " is missing");
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read " + VANILLA_RESOURCE, e);
+        }
+    }
+
+    /**
+     * Gets the Minecraft version the schema describes.
+     */
+    public String getVersion() {
+        return _version;
+    }
+
+    /**
+     * Narrows the schema down to the properties servers of the specified version have.
+     * @param version The Minecraft version, like 1.20.4.
+     * @return The schema for that version.
+     */
+    public PropertySchema forVersion(String version) {
+        Builder builder = new Builder().version(version);
+        for (PropertyDef def : _defs) {
+            if (def.isAvailableIn(version)) {
+                builder.add(def.getKey(), def.getType(), def.getDefaultValue(), def.getMin(), def.getMax(), def.getOptions(),
+                        def.getTooltip(), def.getSince(), def.getRemoved());
+            }
+        }
+        return builder.build();
+    }
+
+    /// The multiplier of the hash table, stored by compiled schema packs so they don't need to search for it again.
+    int getSeed() {
+        return _seed;
+    }
+
+    /// The bit count of the hash table, stored along with the seed.
+    int getTableBits() {
+        return 32 - _shift;
+    }
+
+    /**
+     * Gets the amount of keys in the schema.
+     */
+    public int size() {
+        return _defs.length;
+    }
+
+    /**
+     * Gets the definition at the specified index.
+     */
+    public PropertyDef get(int index) {
+        return _defs[index];
+    }
+
+    /**
+     * Gets the definition of a key.
+     * @param key The key.
+     * @return The definition, or null if the key isn't part of this schema.
+     */
+    public PropertyDef get(String key) {
+        int index = indexOf(key);
+        return index < 0 ? null : _defs[index];
+    }
+
+    /**
+     * Finds the index of a key.
+     * @param key The key.
+     * @return The index, or -1 if the key isn't part of this schema.
+     */
+    public int indexOf(String key) {
+        int hash = key.hashCode();
+        int slot = (hash * _seed) >>> _shift;
+
+        int index = _table[slot] - 1;
+        if (index < 0 || _hashes[slot] != hash || !_defs[index].getKey().equals(key)) return -1;
+        return index;
+    }
+
+    /**
+     * Finds the index of a key read straight from a file, without turning it into a string first.
+     * @param data The bytes of the file.
+     * @param start Where the key starts.
+     * @param length The length of the key.
+     * @return The index, or -1 if the key isn't part of this schema.
+     */
+    int indexOf(byte[] data, int start, int length) {
+        // Same as String.hashCode for the ASCII keys server.properties uses.
+        int hash = 0;
+        for (int x = 0; x < length; x++) {
+            hash = 31 * hash + (data[start + x] & 0xFF);
+        }
+
+        int slot = (hash * _seed) >>> _shift;
+        int index = _table[slot] - 1;
+        if (index < 0 || _hashes[slot] != hash || !keyMatches(_defs[index].getKeyBytes(), data, start, length)) return -1;
+        return index;
+    }
+
+    private static boolean keyMatches(byte[] key, byte[] data, int start, int length) {
+        if (key.length != length) return false;
+
+        for (int x = 0; x < length; x++) {
+            if (key[x] != data[start + x]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Collects property definitions in order and builds a schema from them.
+     */
+    public static final class Builder {
+        private final ArrayList<PropertyDef> _defs = new ArrayList<>();
+        private final HashSet<String> _keys = new HashSet<>();
+        private String _version = "";
+
+        public Builder version(String version) {
+            _version = version;
+            return this;
+        }
+
+        public Builder bool(String key, boolean def) {
+            return add(key, PropertyType.BOOLEAN, Boolean.toString(def), 0, 1, null);
+        }
+
+        public Builder integer(String key, int def, int min, int max) {
+            return add(key, PropertyType.INT, Integer.toString(def), min, max, null);
+        }
+
+        public Builder longs(String key, long def, long min, long max) {
+            return add(key, PropertyType.LONG, Long.toString(def), min, max, null);
+        }
+
+        public Builder options(String key, String def, String... options) {
+            return add(key, PropertyType.ENUM, def, 0, options.length - 1, options);
+        }
+
+        public Builder string(String key, String def) {
+            return add(key, PropertyType.STRING, def, 0, 0, null);
+        }
+
+        public Builder add(String key, PropertyType type, String def, long min, long max, String[] options) {
+            return add(key, type, def, min, max, options, "", "", "");
+        }
+
+        public Builder add(String key, PropertyType type, String def, long min, long max, String[] options,
+                           String tooltip, String since, String removed) {
+            if (!_keys.add(key)) throw new IllegalArgumentException("Duplicate key " + key);
+            _defs.add(new PropertyDef(_defs.size(), key, type, def, min, max, options, tooltip, since, removed));
+            return this;
+        }
+
+        public PropertySchema build() {
+            return new PropertySchema(_version, _defs, 0, 0);
+        }
+
+        /**
+         * Builds the schema with a hash table multiplier found earlier. Falls back to searching if it doesn't fit.
+         */
+        PropertySchema build(int seed, int bits) {
+            return new PropertySchema(_version, _defs, seed, bits);
+        }
+    }
+}
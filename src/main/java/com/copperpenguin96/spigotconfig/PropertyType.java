@@ -0,0 +1,13 @@
+package com.copperpenguin96.spigotconfig;
+
+/**
+ * The kinds of values a server property can hold.
+ */
+public enum PropertyType {
+    BOOLEAN,
+    INT,
+    LONG,
+    /// One of a fixed set of options, stored as the option's index.
+    ENUM,
+    STRING
+}
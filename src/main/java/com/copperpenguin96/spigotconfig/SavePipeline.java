@@ -0,0 +1,181 @@
+package com.copperpenguin96.spigotconfig;
+
+import javafx.application.Platform;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a save in the background so the window never freezes. The server.properties write and every plugin's
+ * {@link ConfigManifest#save()} run at the same time, each plugin under a {@link PluginSupervisor} with its own time
+ * limit. Progress and the outcome are reported back on the FX thread.
+ */
+public class SavePipeline {
+
+    /// How long a plugin's save gets by default before it is given up on.
+    public static final Duration DEFAULT_PLUGIN_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * Receives updates about a save. Always called on the FX thread.
+     */
+    public interface Listener {
+        /**
+         * Called every time a part of the save finishes.
+         * @param done How many parts are done.
+         * @param total How many parts there are.
+         */
+        void progress(int done, int total);
+
+        /**
+         * Called once every part has finished or timed out.
+         * @param result What happened.
+         */
+        void finished(Result result);
+    }
+
+    /**
+     * The outcome of a save.
+     * @param data The server.properties contents that were written, or null if they weren't (unchanged or failed).
+     * @param failures A message for every part that failed or timed out.
+     */
+    public record Result(byte[] data, List<String> failures) {
+        public boolean succeeded() {
+            return failures.isEmpty();
+        }
+    }
+
+    /// Runs each plugin's save with its deadline, and skips quarantined plugins.
+    private final PluginSupervisor _supervisor;
+
+    public SavePipeline() {
+        this(new PluginSupervisor());
+    }
+
+    /**
+     * @param pluginTimeout How long each plugin's save may take.
+     */
+    public SavePipeline(Duration pluginTimeout) {
+        this(new PluginSupervisor().setDeadline(PluginSupervisor.Operation.SAVE, pluginTimeout));
+    }
+
+    /**
+     * @param supervisor Runs the plugins' saves, with its deadline for saving.
+     */
+    public SavePipeline(PluginSupervisor supervisor) {
+        _supervisor = supervisor;
+    }
+
+    /**
+     * Starts a save. Returns right away.
+     * @param file The server.properties file.
+     * @param data The snapshot to write, or null if server.properties doesn't need writing.
+     * @param manifests The plugin manifests to save.
+     * @param listener Told about progress and the outcome.
+     */
+    public void run(Path file, byte[] data, List<ConfigManifest> manifests, Listener listener) {
+        List<ConfigManifest> snapshot = new ArrayList<>(manifests);
+        Thread.ofVirtual().name("save-pipeline").start(() -> save(file, data, snapshot, listener));
+    }
+
+    private void save(Path file, byte[] data, List<ConfigManifest> manifests, Listener listener) {
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        int total = manifests.size() + (data != null ? 1 : 0);
+        AtomicInteger done = new AtomicInteger();
+        boolean written = false;
+
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<?> propertiesWrite = null;
+            if (data != null) {
+                propertiesWrite = workers.submit(() -> {
+                    ServerProperties.write(file, data, false);
+                    report(listener, done.incrementAndGet(), total);
+                    return null;
+                });
+            }
+
+            ArrayList<Future<?>> pluginSaves = new ArrayList<>();
+            for (ConfigManifest manifest : manifests) {
+                String plugin = PluginSupervisor.pluginOf(manifest.getClass());
+                pluginSaves.add(workers.submit(() -> {
+                    // The supervisor holds each plugin to its deadline, and cancels it if it goes over.
+                    _supervisor.call(plugin, PluginSupervisor.Operation.SAVE, () -> {
+                        save(manifest);
+                        return null;
+                    });
+                    report(listener, done.incrementAndGet(), total);
+                    return null;
+                }));
+            }
+
+            for (int x = 0; x < pluginSaves.size(); x++) {
+                await(pluginSaves.get(x), PluginSupervisor.pluginOf(manifests.get(x).getClass()), failures);
+            }
+
+            if (propertiesWrite != null) {
+                written = await(propertiesWrite, "server.properties", failures);
+            }
+        } finally {
+            // Not closed, that would wait on plugins that ignored being cancelled.
+            workers.shutdownNow();
+        }
+
+        Result result = new Result(written ? data : null, List.copyOf(failures));
+        Platform.runLater(() -> listener.finished(result));
+    }
+
+    /**
+     * Calls a plugin's save, recording a flight recorder event for it.
+     */
+    private static void save(ConfigManifest manifest) {
+        ConfigEvents.ManifestSaved event = new ConfigEvents.ManifestSaved();
+        event.begin();
+        try {
+            manifest.save();
+            event.succeeded = true;
+        } catch (RuntimeException | Error e) {
+            event.error = e.toString();
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                event.manifestClass = manifest.getClass().getName();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Waits for a part of the save to finish.
+     * @return True if it finished without problems.
+     */
+    private static boolean await(Future<?> future, String name, List<String> failures) {
+        try {
+            future.get();
+            return true;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PluginSupervisor.PluginException failure) {
+                if (failure.getCause() != null) failure.getCause().printStackTrace();
+                failures.add(failure.getMessage());
+            } else {
+                e.getCause().printStackTrace();
+                failures.add(name + " failed to save: " + e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.add(name + " was interrupted while saving");
+        }
+        return false;
+    }
+
+    private static void report(Listener listener, int done, int total) {
+        Platform.runLater(() -> listener.progress(done, total));
+    }
+}
@@ -0,0 +1,228 @@
+package com.copperpenguin96.spigotconfig;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Schemas for each server version, compiled to a compact binary file the first time they are needed and memory
+ * mapped after that. A pack for a version comes from a data file the user dropped in the schemas folder
+ * ({@code .spigotconfig/schemas/<version>.json}) if there is one, otherwise from the application's own data file
+ * narrowed down to the properties that version has.
+ * <p>
+ * Compiled packs are only written once {@link #setCaching(boolean)} turns it on, which the window does for the server
+ * it's opened in. Headless runs work on other folders than the one they're started in, and leave it untouched.
+ */
+public final class SchemaPack {
+
+    /// Where compiled packs and the user's own data files are kept, relative to the working directory.
+    public static final Path DEFAULT_LOCATION = Path.of(".spigotconfig", "schemas");
+
+    /// Identifies the file as a compiled schema pack.
+    private static final int MAGIC = 0x53435350; // SCSP
+
+    /// Bumped whenever the layout of the file changes, older files are compiled again.
+    private static final int VERSION = 1;
+
+    /// Packs already loaded by this process, keyed by location and version.
+    private static final Map<String, PropertySchema> LOADED = new ConcurrentHashMap<>();
+
+    /// Whether compiled packs are written. Packs that are already there are read either way.
+    private static volatile boolean _caching = false;
+
+    private SchemaPack() { }
+
+    /**
+     * Gets the schema for the server in the specified directory, using its detected version.
+     * @param serverDir The server's root directory.
+     * @return The schema, or the vanilla one if the version couldn't be found.
+     */
+    public static PropertySchema forServer(Path serverDir) {
+        String version = ServerVersion.detect(serverDir);
+        return version == null ? PropertySchema.VANILLA : forVersion(version, DEFAULT_LOCATION);
+    }
+
+    /**
+     * Gets the schema for the specified version, compiling its pack if it hasn't been yet.
+     * @param version The Minecraft version, like 1.20.4.
+     * @param location The folder packs are kept in.
+     * @return The schema. If the pack can't be read or written, it is still built in memory.
+     */
+    public static PropertySchema forVersion(String version, Path location) {
+        return LOADED.computeIfAbsent(location.toAbsolutePath() + "|" + version, key -> load(version, location));
+    }
+
+    /**
+     * Sets whether compiled packs are written to the schemas folder, so later launches can map them instead of
+     * parsing. Off until the application knows it runs in a server's folder.
+     * @param caching True to write them.
+     */
+    public static void setCaching(boolean caching) {
+        _caching = caching;
+    }
+
+    /**
+     * Builds the schema of the version this application targets from the application's data file. Only kept in
+     * memory, so using the vanilla schema never writes anything.
+     * @return The schema.
+     */
+    static PropertySchema bundled() {
+        try {
+            PropertySchema all = PropertySchema.load(new ByteArrayInputStream(PropertySchema.readResource()));
+            return all.forVersion(all.getVersion());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read the bundled schema", e);
+        }
+    }
+
+    /**
+     * Reads the compiled pack of a version, or compiles it if it's missing or out of date.
+     */
+    private static PropertySchema load(String version, Path location) {
+        Path userPack = location.resolve(version + ".json");
+        Path compiled = location.resolve(version + ".bin");
+
+        try {
+            byte[] source = Files.isRegularFile(userPack) ? Files.readAllBytes(userPack) : PropertySchema.readResource();
+            long hash = hash(source, version);
+
+            PropertySchema schema = Files.isRegularFile(compiled) ? read(compiled, hash) : null;
+            if (schema != null) return schema;
+
+            schema = PropertySchema.load(new ByteArrayInputStream(source)).forVersion(version);
+            if (_caching) save(compiled, schema, hash);
+            return schema;
+        } catch (IOException e) {
+            System.out.println("Unable to load schema pack for " + version + ", using " + PropertySchema.VANILLA.getVersion());
+            e.printStackTrace();
+            return PropertySchema.VANILLA;
+        }
+    }
+
+    /**
+     * Writes a compiled pack. Failing to is only a missed shortcut for next time.
+     */
+    private static void save(Path compiled, PropertySchema schema, long hash) {
+        try {
+            Files.createDirectories(compiled.getParent());
+            AtomicWriter.write(compiled, write(schema, hash));
+        } catch (IOException e) {
+            System.out.println("Unable to save schema pack " + compiled);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Compiles a schema into a pack.
+     * @param schema The schema.
+     * @param hash The hash of the data the schema was built from, so outdated packs are noticed.
+     * @return The pack's bytes.
+     */
+    static byte[] write(PropertySchema schema, long hash) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(hash);
+            writeString(out, schema.getVersion());
+            out.writeInt(schema.getSeed());
+            out.writeInt(schema.getTableBits());
+            out.writeInt(schema.size());
+
+            for (int x = 0; x < schema.size(); x++) {
+                PropertyDef def = schema.get(x);
+                writeString(out, def.getKey());
+                out.writeByte(def.getType().ordinal());
+                writeString(out, def.getDefaultValue());
+                out.writeLong(def.getMin());
+                out.writeLong(def.getMax());
+                out.writeShort(def.getOptions().length);
+                for (String option : def.getOptions()) {
+                    writeString(out, option);
+                }
+                writeString(out, def.getSince());
+                writeString(out, def.getRemoved());
+                writeString(out, def.getTooltip());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Maps a compiled pack and reads the schema from it.
+     * @param file The pack.
+     * @param hash The hash the pack must have been compiled from.
+     * @return The schema, or null if the pack is outdated or damaged.
+     */
+    static PropertySchema read(Path file, long hash) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.remaining() < 16 || in.getInt() != MAGIC || in.getInt() != VERSION || in.getLong() != hash) return null;
+
+            PropertySchema.Builder builder = new PropertySchema.Builder().version(readString(in));
+            int seed = in.getInt();
+            int bits = in.getInt();
+            int count = in.getInt();
+            PropertyType[] types = PropertyType.values();
+
+            for (int x = 0; x < count; x++) {
+                String key = readString(in);
+                PropertyType type = types[in.get()];
+                String def = readString(in);
+                long min = in.getLong();
+                long max = in.getLong();
+                String[] options = new String[in.getShort()];
+                for (int y = 0; y < options.length; y++) {
+                    options[y] = readString(in);
+                }
+                String since = readString(in);
+                String removed = readString(in);
+                String tooltip = readString(in);
+
+                builder.add(key, type, def, min, max, options.length == 0 ? null : options, tooltip, since, removed);
+            }
+
+            return builder.build(seed, bits);
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            return null; // compiled again by the caller
+        }
+    }
+
+    /**
+     * Hashes the data a pack is built from, along with the version it's narrowed to.
+     */
+    private static long hash(byte[] source, String version) {
+        CRC32C crc = new CRC32C();
+        crc.update(source);
+        crc.update(version.getBytes(StandardCharsets.UTF_8));
+        crc.update(VERSION);
+        return crc.getValue();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) throw new IllegalArgumentException("Bad string length " + length);
+
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,879 @@
+package com.copperpenguin96.spigotconfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The contents of a server.properties file, independent of the GUI. Values of known keys are stored by type in
+ * arrays indexed by their position in the {@link PropertySchema}; keys the schema doesn't know are kept as text.
+ * <p>
+ * The file is parsed in a single pass over its bytes. Known keys are matched without creating strings and numbers
+ * are read in place, so only string values cost an allocation. The original bytes are kept so saving can patch
+ * just the lines that changed.
+ */
+public class ServerProperties {
+
+    /// The key isn't in the file.
+    private static final byte ABSENT = 0;
+
+    /// The key is set and its typed value is in _numbers or _strings.
+    private static final byte SET = 1;
+
+    /// The key is set but its value didn't fit its type. The text is kept in _strings so it is written back as is.
+    private static final byte RAW = 2;
+
+    private final PropertySchema _schema;
+
+    /// Whether each key is set, see ABSENT, SET and RAW.
+    private final byte[] _state;
+
+    /// Values of boolean (0/1), int, long and enum (option index) keys.
+    private final long[] _numbers;
+
+    /// Values of string keys, and the text of RAW values.
+    private final String[] _strings;
+
+    /// Keys the schema doesn't know, in the order they were read.
+    private final LinkedHashMap<String, String> _other = new LinkedHashMap<>();
+
+    /// Set when a value was changed since loading.
+    private boolean _changed = false;
+
+    /// Which keys of the schema were changed since loading, so only their lines are rewritten.
+    private final boolean[] _modified;
+
+    /// Unknown keys that were changed since loading.
+    private final HashSet<String> _otherModified = new HashSet<>();
+
+    /// The file as it was read, or null if these properties didn't come from a file.
+    private byte[] _original;
+
+    /// Where each key=value line of the original file starts and ends (before its line break), and the schema
+    /// index of its key or -1 for unknown keys. Three ints per line.
+    private int[] _lines = new int[0];
+    private int _lineCount = 0;
+
+    /**
+     * Creates empty properties for the vanilla schema.
+     */
+    public ServerProperties() {
+        this(PropertySchema.VANILLA);
+    }
+
+    /**
+     * Creates empty properties for the specified schema.
+     * @param schema The schema.
+     */
+    public ServerProperties(PropertySchema schema) {
+        _schema = schema;
+        _state = new byte[schema.size()];
+        _numbers = new long[schema.size()];
+        _strings = new String[schema.size()];
+        _modified = new boolean[schema.size()];
+    }
+
+    /**
+     * Reads the properties from the specified file using the vanilla schema.
+     * @param file The server.properties file.
+     * @return The properties.
+     * @throws IOException Will throw if the file can't be read.
+     */
+    public static ServerProperties load(Path file) throws IOException {
+        return load(PropertySchema.VANILLA, file);
+    }
+
+    /**
+     * Reads a server.properties file using the specified schema, for servers running another version.
+     * @param schema The schema of the server's version.
+     * @param file The file.
+     * @return The properties.
+     * @throws IOException Will throw if the file can't be read.
+     */
+    public static ServerProperties load(PropertySchema schema, Path file) throws IOException {
+        return parse(schema, Files.readAllBytes(file));
+    }
+
+    /**
+     * Parses the contents of a server.properties file. Follows the rules of {@link java.util.Properties}: blank
+     * lines and # or ! comments are skipped, keys end at =, : or whitespace, and backslash escapes are understood.
+     * @param schema The schema.
+     * @param data The file's contents, in UTF-8.
+     * @return The properties.
+     */
+    public static ServerProperties parse(PropertySchema schema, byte[] data) {
+        ServerProperties props = new ServerProperties(schema);
+        int length = data.length;
+        int pos = hasBom(data) ? 3 : 0; // kept when saving, as it's outside of every line
+
+        while (pos < length) {
+            while (pos < length && isBlank(data[pos])) pos++;
+            if (pos >= length) break;
+
+            byte first = data[pos];
+            if (first == '\n' || first == '\r') {
+                pos++;
+                continue;
+            }
+            if (first == '#' || first == '!') {
+                while (pos < length && data[pos] != '\n' && data[pos] != '\r') pos++;
+                continue;
+            }
+
+            // Key
+            int keyStart = pos;
+            boolean keyEscaped = false;
+            while (pos < length) {
+                byte b = data[pos];
+                if (b == '\\') {
+                    keyEscaped = true;
+                    pos += 2;
+                    continue;
+                }
+                if (b == '=' || b == ':' || isBlank(b) || b == '\n' || b == '\r') break;
+                pos++;
+            }
+            int keyEnd = Math.min(pos, length);
+
+            // Separator, with whitespace around it
+            while (pos < length && isBlank(data[pos])) pos++;
+            if (pos < length && (data[pos] == '=' || data[pos] == ':')) pos++;
+            while (pos < length && isBlank(data[pos])) pos++;
+
+            // Value, a backslash before a line break continues it on the next line
+            int valueStart = pos;
+            boolean valueEscaped = false;
+            while (pos < length && data[pos] != '\n' && data[pos] != '\r') {
+                if (data[pos] == '\\') {
+                    valueEscaped = true;
+                    pos++;
+                    if (pos < length && data[pos] == '\r' && pos + 1 < length && data[pos + 1] == '\n') pos++;
+                }
+                pos++;
+            }
+            int valueEnd = Math.min(pos, length);
+
+            int index = props.read(data, keyStart, keyEnd, keyEscaped, valueStart, valueEnd, valueEscaped);
+            props.addLine(keyStart, valueEnd, index);
+        }
+
+        props._original = data;
+        props._changed = false;
+        Arrays.fill(props._modified, false);
+        props._otherModified.clear();
+        return props;
+    }
+
+    /**
+     * Remembers where a key=value line is in the original file.
+     */
+    private void addLine(int start, int end, int index) {
+        if (_lineCount * 3 == _lines.length) {
+            _lines = Arrays.copyOf(_lines, Math.max(64 * 3, _lines.length * 2));
+        }
+
+        _lines[_lineCount * 3] = start;
+        _lines[_lineCount * 3 + 1] = end;
+        _lines[_lineCount * 3 + 2] = index;
+        _lineCount++;
+    }
+
+    /**
+     * Stores a single key and value read by the parser.
+     * @return The schema index of the key, or -1 if the schema doesn't know it.
+     */
+    private int read(byte[] data, int keyStart, int keyEnd, boolean keyEscaped, int valueStart, int valueEnd, boolean valueEscaped) {
+        int index;
+        String key = null;
+        if (keyEscaped) {
+            key = unescape(data, keyStart, keyEnd);
+            index = _schema.indexOf(key);
+        } else {
+            index = _schema.indexOf(data, keyStart, keyEnd - keyStart);
+        }
+
+        if (index < 0) {
+            if (key == null) key = new String(data, keyStart, keyEnd - keyStart, StandardCharsets.UTF_8);
+            _other.put(key, text(data, valueStart, valueEnd, valueEscaped));
+            return -1;
+        }
+
+        if (valueEscaped) {
+            // Rare for anything but strings, take the slow path.
+            set(index, unescape(data, valueStart, valueEnd));
+            return index;
+        }
+
+        PropertyDef def = _schema.get(index);
+        int valueLength = valueEnd - valueStart;
+        switch (def.getType()) {
+            case BOOLEAN -> {
+                if (matchesIgnoreCase(data, valueStart, valueLength, "true")) {
+                    setNumber(index, 1);
+                } else if (matchesIgnoreCase(data, valueStart, valueLength, "false")) {
+                    setNumber(index, 0);
+                } else {
+                    setRaw(index, text(data, valueStart, valueEnd, false), def.getDefaultNumber());
+                }
+            }
+            case INT, LONG -> {
+                long min = def.getType() == PropertyType.INT ? Integer.MIN_VALUE : Long.MIN_VALUE;
+                long max = def.getType() == PropertyType.INT ? Integer.MAX_VALUE : Long.MAX_VALUE;
+                if (!parseNumber(index, data, valueStart, valueEnd, min, max)) {
+                    setRaw(index, text(data, valueStart, valueEnd, false), def.getDefaultNumber());
+                }
+            }
+            case ENUM -> {
+                int option = def.indexOfOption(data, valueStart, valueLength);
+                if (option >= 0) {
+                    setNumber(index, option);
+                } else {
+                    setRaw(index, text(data, valueStart, valueEnd, false), def.getDefaultNumber());
+                }
+            }
+            default -> {
+                _strings[index] = text(data, valueStart, valueEnd, false);
+                _state[index] = SET;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Reads a whole number straight from the file's bytes.
+     * @return False if the value isn't a number within the bounds.
+     */
+    private boolean parseNumber(int index, byte[] data, int start, int end, long min, long max) {
+        if (start >= end) return false;
+
+        boolean negative = data[start] == '-';
+        int pos = (negative || data[start] == '+') ? start + 1 : start;
+        if (pos >= end) return false;
+
+        long value = 0;
+        for (; pos < end; pos++) {
+            int digit = data[pos] - '0';
+            if (digit < 0 || digit > 9) return false;
+            if (value > (Long.MAX_VALUE - digit) / 10) return false; // overflow
+
+            value = value * 10 + digit;
+        }
+
+        if (negative) value = -value;
+        if (value < min || value > max) return false;
+
+        setNumber(index, value);
+        return true;
+    }
+
+    private void setNumber(int index, long value) {
+        _numbers[index] = value;
+        _strings[index] = null;
+        _state[index] = SET;
+    }
+
+    private void setRaw(int index, String text, long fallback) {
+        _numbers[index] = fallback;
+        _strings[index] = text;
+        _state[index] = RAW;
+    }
+
+    // region Getters
+
+    /**
+     * Gets the schema these properties follow.
+     */
+    public PropertySchema getSchema() {
+        return _schema;
+    }
+
+    /**
+     * Whether the key is set, either by the file or since loading.
+     */
+    public boolean isSet(String key) {
+        int index = _schema.indexOf(key);
+        return index < 0 ? _other.containsKey(key) : _state[index] != ABSENT;
+    }
+
+    public boolean isSet(int index) {
+        return _state[index] != ABSENT;
+    }
+
+    /**
+     * Gets a boolean value, or its default if it isn't set.
+     */
+    public boolean getBoolean(int index) {
+        return number(index) != 0;
+    }
+
+    public boolean getBoolean(String key) {
+        return getBoolean(requireIndex(key));
+    }
+
+    /**
+     * Gets an int value, or its default if it isn't set or isn't a valid number.
+     */
+    public int getInt(int index) {
+        return (int) number(index);
+    }
+
+    public int getInt(String key) {
+        return getInt(requireIndex(key));
+    }
+
+    /**
+     * Gets a long value, or its default if it isn't set or isn't a valid number.
+     */
+    public long getLong(int index) {
+        return number(index);
+    }
+
+    public long getLong(String key) {
+        return getLong(requireIndex(key));
+    }
+
+    /**
+     * Gets the index of an enum value's option, or of its default if it isn't set or isn't a known option.
+     */
+    public int getEnum(int index) {
+        return (int) number(index);
+    }
+
+    public int getEnum(String key) {
+        return getEnum(requireIndex(key));
+    }
+
+    /**
+     * Gets the value as it would be written to the file, unescaped. Defaults are used for keys that aren't set.
+     */
+    public String getString(int index) {
+        PropertyDef def = _schema.get(index);
+        if (_state[index] == ABSENT) return def.getDefaultValue();
+        if (_state[index] == RAW) return _strings[index];
+
+        return switch (def.getType()) {
+            case BOOLEAN -> _numbers[index] != 0 ? "true" : "false";
+            case INT, LONG -> Long.toString(_numbers[index]);
+            case ENUM -> def.getOptions()[(int) _numbers[index]];
+            default -> _strings[index];
+        };
+    }
+
+    /**
+     * Gets the value of any key, known to the schema or not.
+     * @param key The key of the property.
+     * @return The value, or null if it isn't set.
+     */
+    public String get(String key) {
+        int index = _schema.indexOf(key);
+        if (index < 0) return _other.get(key);
+        return _state[index] == ABSENT ? null : getString(index);
+    }
+
+    /**
+     * Gets the keys the schema doesn't know about, with their values.
+     */
+    public Map<String, String> getOther() {
+        return _other;
+    }
+
+    private long number(int index) {
+        return _state[index] == ABSENT ? _schema.get(index).getDefaultNumber() : _numbers[index];
+    }
+
+    private int requireIndex(String key) {
+        int index = _schema.indexOf(key);
+        if (index < 0) throw new IllegalArgumentException("Unknown property: " + key);
+        return index;
+    }
+
+    // endregion
+
+    // region Setters
+
+    public void setBoolean(int index, boolean value) {
+        setTyped(index, value ? 1 : 0);
+    }
+
+    public void setBoolean(String key, boolean value) {
+        setBoolean(requireIndex(key), value);
+    }
+
+    public void setInt(int index, int value) {
+        setTyped(index, value);
+    }
+
+    public void setInt(String key, int value) {
+        setInt(requireIndex(key), value);
+    }
+
+    public void setLong(int index, long value) {
+        setTyped(index, value);
+    }
+
+    public void setLong(String key, long value) {
+        setLong(requireIndex(key), value);
+    }
+
+    /**
+     * Sets an enum value by the index of its option.
+     */
+    public void setEnum(int index, int option) {
+        setTyped(index, option);
+    }
+
+    public void setEnum(String key, int option) {
+        setEnum(requireIndex(key), option);
+    }
+
+    private void setTyped(int index, long value) {
+        if (_state[index] == SET && _numbers[index] == value) return;
+
+        setNumber(index, value);
+        _modified[index] = true;
+        _changed = true;
+    }
+
+    /**
+     * Sets a value from its text, converting it to the key's type. Keys the schema doesn't know are kept as text.
+     * @param key The key of the property.
+     * @param value The value of the property, unescaped.
+     */
+    public void set(String key, String value) {
+        int index = _schema.indexOf(key);
+        if (index < 0) {
+            String old = _other.put(key, value);
+            if (!value.equals(old)) {
+                _otherModified.add(key);
+                _changed = true;
+            }
+            return;
+        }
+
+        set(index, value);
+    }
+
+    /**
+     * Sets a value from its text, converting it to the key's type. Values that don't fit are kept as text.
+     */
+    public void set(int index, String value) {
+        if (_state[index] != ABSENT && value.equals(getString(index))) return;
+
+        PropertyDef def = _schema.get(index);
+        switch (def.getType()) {
+            case BOOLEAN -> {
+                if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+                    setNumber(index, Boolean.parseBoolean(value) ? 1 : 0);
+                } else {
+                    setRaw(index, value, def.getDefaultNumber());
+                }
+            }
+            case INT, LONG -> {
+                try {
+                    long number = def.getType() == PropertyType.INT ? Integer.parseInt(value) : Long.parseLong(value);
+                    setNumber(index, number);
+                } catch (NumberFormatException e) {
+                    setRaw(index, value, def.getDefaultNumber());
+                }
+            }
+            case ENUM -> {
+                int option = def.indexOfOption(value);
+                if (option >= 0) {
+                    setNumber(index, option);
+                } else {
+                    setRaw(index, value, def.getDefaultNumber());
+                }
+            }
+            default -> {
+                _strings[index] = value;
+                _state[index] = SET;
+            }
+        }
+
+        _modified[index] = true;
+        _changed = true;
+    }
+
+    /**
+     * Whether any value was changed since loading.
+     */
+    public boolean isChanged() {
+        return _changed;
+    }
+
+    // endregion
+
+    // region Saving
+
+    /**
+     * Saves the properties to the specified file. If they were read from a file, its layout, comments and order are
+     * kept: only lines of changed keys are rewritten, a changed key that was repeated is merged into its first line
+     * and new keys follow the last existing one. Nothing is written if the result is the same as what was read.
+     * @param file The server.properties file.
+     * @return True if the file was written.
+     * @throws IOException Will throw if the file can't be written.
+     */
+    public boolean save(Path file) throws IOException {
+        return save(file, false);
+    }
+
+    /**
+     * Same as {@link #save(Path)}, the file is replaced atomically so a crash never leaves it half written.
+     * @param file The server.properties file.
+     * @param backup Whether to keep the previous file as server.properties.bak.
+     * @return True if the file was written.
+     * @throws IOException Will throw if the file can't be written.
+     */
+    public boolean save(Path file, boolean backup) throws IOException {
+        byte[] data = snapshot();
+        if (data == null) return false;
+
+        write(file, data, backup);
+        markSaved(data);
+        return true;
+    }
+
+    /**
+     * Atomically writes the contents of a server.properties file, recording a flight recorder event for it.
+     * @param file The server.properties file.
+     * @param data The new contents.
+     * @param backup Whether to keep the previous file as server.properties.bak.
+     * @throws IOException Will throw if the file can't be written.
+     */
+    static void write(Path file, byte[] data, boolean backup) throws IOException {
+        ConfigEvents.PropertiesWritten event = new ConfigEvents.PropertiesWritten();
+        event.begin();
+        try {
+            AtomicWriter.write(file, ByteBuffer.wrap(data), backup);
+            event.succeeded = true;
+        } finally {
+            if (event.shouldCommit()) {
+                event.path = file.toString();
+                event.bytes = data.length;
+                event.backup = backup;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Gets what {@link #save(Path)} would write, so the write itself can happen elsewhere (like a background thread).
+     * Call {@link #markSaved(byte[])} once it has been written.
+     * @return The new contents of the file, or null if they are the same as what was read.
+     */
+    public byte[] snapshot() {
+        byte[] data = _original == null ? format(toLines()) : render();
+        if (_original != null && Arrays.equals(data, _original)) {
+            _changed = false;
+            return null;
+        }
+        return data;
+    }
+
+    /**
+     * Checks if the specified file contents are what these properties were last read from or saved as.
+     * @param data The file's contents.
+     * @return True if they are the same.
+     */
+    public boolean isSnapshotOf(byte[] data) {
+        return _original != null && Arrays.equals(data, _original);
+    }
+
+    /**
+     * Tells the properties that a snapshot was written, making it the new starting point for later saves.
+     * @param data The snapshot that was written.
+     */
+    public void markSaved(byte[] data) {
+        _original = data;
+        reindex();
+
+        _changed = false;
+        Arrays.fill(_modified, false);
+        _otherModified.clear();
+    }
+
+    /**
+     * Builds the new contents of the file from the original, patching only what changed.
+     */
+    byte[] render() {
+        String newLine = hasCrLf(_original) ? "\r\n" : "\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream(_original.length + 64);
+
+        String[] otherKeys = new String[_lineCount];
+        for (int x = 0; x < _lineCount; x++) {
+            if (_lines[x * 3 + 2] < 0) otherKeys[x] = keyOf(_lines[x * 3], _lines[x * 3 + 1]);
+        }
+
+        boolean[] written = new boolean[_schema.size()];
+        HashSet<String> otherWritten = new HashSet<>();
+        StringBuilder sb = new StringBuilder();
+        int copied = 0;
+
+        for (int x = 0; x < _lineCount; x++) {
+            int start = _lines[x * 3];
+            int end = _lines[x * 3 + 1];
+            int index = _lines[x * 3 + 2];
+
+            boolean first;
+            boolean rewrite;
+            if (index >= 0) {
+                first = !written[index];
+                written[index] = true;
+                rewrite = _modified[index];
+            } else {
+                first = otherWritten.add(otherKeys[x]);
+                rewrite = _otherModified.contains(otherKeys[x]);
+            }
+
+            // Repeats of a key that wasn't changed are left alone, the last one still wins when the file is read.
+            if (rewrite && !first) {
+                // The new value went into the first line, drop the repeat along with its line break.
+                out.write(_original, copied, start - copied);
+                copied = skipLineBreak(end);
+                continue;
+            }
+
+            out.write(_original, copied, start - copied);
+            if (rewrite) {
+                sb.setLength(0);
+                if (index >= 0) {
+                    appendLine(sb, _schema.get(index).getKey(), getString(index));
+                } else {
+                    appendLine(sb, otherKeys[x], _other.get(otherKeys[x]));
+                }
+                out.writeBytes(sb.toString().getBytes(StandardCharsets.UTF_8));
+            } else {
+                out.write(_original, start, end - start);
+            }
+            copied = end;
+        }
+
+        // New keys go right after the last existing one.
+        sb.setLength(0);
+        for (int x = 0; x < _schema.size(); x++) {
+            if (!written[x] && _state[x] != ABSENT) {
+                sb.append(newLine);
+                appendLine(sb, _schema.get(x).getKey(), getString(x));
+            }
+        }
+        for (Map.Entry<String, String> pair : _other.entrySet()) {
+            if (!otherWritten.contains(pair.getKey())) {
+                sb.append(newLine);
+                appendLine(sb, pair.getKey(), pair.getValue());
+            }
+        }
+
+        if (!sb.isEmpty()) {
+            if (_lineCount == 0) {
+                // Only comments so far, add after them.
+                out.write(_original, copied, _original.length - copied);
+                copied = _original.length;
+                if (_original.length > 0 && _original[_original.length - 1] == '\n') {
+                    sb.delete(0, newLine.length());
+                }
+            }
+            out.writeBytes(sb.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        out.write(_original, copied, _original.length - copied);
+        return out.toByteArray();
+    }
+
+    /**
+     * Finds the line spans again after the file was rewritten.
+     */
+    private void reindex() {
+        ServerProperties fresh = parse(_schema, _original);
+        _lines = fresh._lines;
+        _lineCount = fresh._lineCount;
+    }
+
+    /**
+     * Reads the key of a line of the original file.
+     */
+    private String keyOf(int start, int end) {
+        int pos = start;
+        boolean escaped = false;
+        while (pos < end) {
+            byte b = _original[pos];
+            if (b == '\\') {
+                escaped = true;
+                pos += 2;
+                continue;
+            }
+            if (b == '=' || b == ':' || isBlank(b)) break;
+            pos++;
+        }
+        return text(_original, start, Math.min(pos, end), escaped);
+    }
+
+    private int skipLineBreak(int pos) {
+        if (pos < _original.length && _original[pos] == '\r') pos++;
+        if (pos < _original.length && _original[pos] == '\n') pos++;
+        return pos;
+    }
+
+    private static boolean hasBom(byte[] data) {
+        return data.length >= 3 && data[0] == (byte) 0xEF && data[1] == (byte) 0xBB && data[2] == (byte) 0xBF;
+    }
+
+    private static boolean hasCrLf(byte[] data) {
+        for (int x = 1; x < data.length; x++) {
+            if (data[x] == '\n') return data[x - 1] == '\r';
+        }
+        return false;
+    }
+
+    private static void appendLine(StringBuilder sb, String key, String value) {
+        escape(sb, key, true);
+        sb.append('=');
+        escape(sb, value, false);
+    }
+
+    /**
+     * Gets the key=value lines that would be written, escaped.
+     */
+    public List<String> toLines() {
+        ArrayList<String> lines = new ArrayList<>(_schema.size() + _other.size());
+        StringBuilder sb = new StringBuilder();
+
+        for (int x = 0; x < _schema.size(); x++) {
+            sb.setLength(0);
+            appendLine(sb, _schema.get(x).getKey(), getString(x));
+            lines.add(sb.toString());
+        }
+
+        for (Map.Entry<String, String> pair : _other.entrySet()) {
+            sb.setLength(0);
+            appendLine(sb, pair.getKey(), pair.getValue());
+            lines.add(sb.toString());
+        }
+
+        return lines;
+    }
+
+    /**
+     * Puts property lines between the header and footer this application uses.
+     */
+    private static byte[] format(List<String> lines) {
+        Date now = new Date();
+        SimpleDateFormat sdf = new SimpleDateFormat("E MMM dd HH:mm:ss z yyyy");
+
+        StringBuilder sb = new StringBuilder(lines.size() * 32);
+        sb.append("# Minecraft server properties\n");
+        sb.append("# ").append(sdf.format(now)).append("\n");
+        sb.append("# Generated by SpigotConfig by CopperPenguin96.");
+
+        for (String line : lines) {
+            sb.append("\n").append(line);
+        }
+
+        sb.append("\n# End Config.");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // endregion
+
+    // region Escaping
+
+    /**
+     * Escapes a key or value the same way {@link java.util.Properties#store} does, apart from leaving non-ASCII
+     * characters alone since the file is UTF-8.
+     */
+    static void escape(StringBuilder sb, String text, boolean isKey) {
+        for (int x = 0; x < text.length(); x++) {
+            char c = text.charAt(x);
+            switch (c) {
+                case ' ' -> {
+                    if (x == 0 || isKey) sb.append('\\');
+                    sb.append(' ');
+                }
+                case '\t' -> sb.append("\\t");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\f' -> sb.append("\\f");
+                case '\\', '=', ':', '#', '!' -> sb.append('\\').append(c);
+                default -> sb.append(c);
+            }
+        }
+    }
+
+    /**
+     * Turns the bytes of a key or value into a string, resolving escapes if there are any.
+     */
+    private static String text(byte[] data, int start, int end, boolean escaped) {
+        if (escaped) return unescape(data, start, end);
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Resolves backslash escapes and line continuations.
+     */
+    static String unescape(byte[] data, int start, int end) {
+        String raw = new String(data, start, end - start, StandardCharsets.UTF_8);
+        StringBuilder sb = new StringBuilder(raw.length());
+
+        for (int x = 0; x < raw.length(); x++) {
+            char c = raw.charAt(x);
+            if (c != '\\' || x + 1 >= raw.length()) {
+                sb.append(c);
+                continue;
+            }
+
+            c = raw.charAt(++x);
+            switch (c) {
+                case 't' -> sb.append('\t');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 'f' -> sb.append('\f');
+                case 'u' -> {
+                    if (x + 4 < raw.length()) {
+                        try {
+                            sb.append((char) Integer.parseInt(raw.substring(x + 1, x + 5), 16));
+                            x += 4;
+                        } catch (NumberFormatException e) {
+                            sb.append('u');
+                        }
+                    } else {
+                        sb.append('u');
+                    }
+                }
+                case '\r', '\n' -> {
+                    // Line continuation, skip the line break and the next line's indentation.
+                    if (c == '\r' && x + 1 < raw.length() && raw.charAt(x + 1) == '\n') x++;
+                    while (x + 1 < raw.length() && isBlank((byte) raw.charAt(x + 1))) x++;
+                }
+                default -> sb.append(c);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\f';
+    }
+
+    private static boolean matchesIgnoreCase(byte[] data, int start, int length, String expected) {
+        if (length != expected.length()) return false;
+
+        for (int x = 0; x < length; x++) {
+            if (Character.toLowerCase((char) data[start + x]) != expected.charAt(x)) return false;
+        }
+        return true;
+    }
+
+    // endregion
+}
@@ -0,0 +1,150 @@
+package com.copperpenguin96.spigotconfig;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Works out which Minecraft version a server runs, so the matching schema can be used for its server.properties.
+ */
+public final class ServerVersion {
+
+    /// File in a server's directory that names its version, for when it can't be read from the server jar.
+    public static final Path HINT_FILE = Path.of(".spigotconfig", "server-version");
+
+    /// A Minecraft version like 1.20 or 1.20.4, anywhere in a string.
+    private static final Pattern VERSION = Pattern.compile("(\\d+\\.\\d+(?:\\.\\d+)?)");
+
+    /// Names of jars that are likely to be the server itself, used when the version has to come from the file name.
+    private static final Pattern SERVER_JAR = Pattern.compile("(?i)(spigot|craftbukkit|paper|purpur|folia|minecraft_server|server)[-_.].*\\.jar");
+
+    private ServerVersion() { }
+
+    /**
+     * Finds the version of the server in the specified directory. A hint file wins, then the version.json or
+     * versions.list inside the server jar, then the version in the server jar's name.
+     * @param serverDir The server's root directory.
+     * @return The version, like 1.20.4, or null if it couldn't be found.
+     */
+    public static String detect(Path serverDir) {
+        String hint = readHint(serverDir.resolve(HINT_FILE));
+        if (hint != null) return hint;
+
+        File[] jars = serverDir.toFile().listFiles((dir, name) -> name.toLowerCase().endsWith(".jar"));
+        if (jars == null) return null;
+        Arrays.sort(jars);
+
+        for (File jar : jars) {
+            String version = readJar(jar);
+            if (version != null) return version;
+        }
+
+        for (File jar : jars) {
+            if (SERVER_JAR.matcher(jar.getName()).matches()) {
+                String version = extract(jar.getName());
+                if (version != null) return version;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Compares two versions part by part, so 1.9 comes before 1.10 and 1.20 before 1.20.1.
+     * @return Negative if a is older, 0 if they are the same, positive if a is newer.
+     */
+    public static int compare(String a, String b) {
+        String[] left = a.split("\\.");
+        String[] right = b.split("\\.");
+
+        for (int x = 0; x < Math.max(left.length, right.length); x++) {
+            int l = x < left.length ? parsePart(left[x]) : 0;
+            int r = x < right.length ? parsePart(right[x]) : 0;
+            if (l != r) return Integer.compare(l, r);
+        }
+        return 0;
+    }
+
+    /**
+     * Pulls the version out of a string like 1.20.4-R0.1-SNAPSHOT or spigot-1.21.1.jar.
+     * @return The version, or null if there isn't one.
+     */
+    static String extract(String text) {
+        Matcher matcher = VERSION.matcher(text);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Reads the first line of the hint file that isn't blank or a comment.
+     */
+    private static String readHint(Path hint) {
+        if (!Files.isRegularFile(hint)) return null;
+
+        try {
+            List<String> lines = Files.readAllLines(hint, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) return extract(line);
+            }
+        } catch (IOException e) {
+            System.out.println("Unable to read " + hint);
+        }
+        return null;
+    }
+
+    /**
+     * Looks inside a jar for the version. Vanilla, Spigot and Paper server jars carry a version.json, and bootstrap
+     * jars list the bundled server in META-INF/versions.list.
+     * @return The version, or null if the jar doesn't say (plugins, this application, etc.)
+     */
+    private static String readJar(File jar) {
+        try (ZipFile zip = new ZipFile(jar)) {
+            ZipEntry versionJson = zip.getEntry("version.json");
+            if (versionJson != null) {
+                try (JsonReader reader = new JsonReader(new InputStreamReader(zip.getInputStream(versionJson), StandardCharsets.UTF_8))) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String name = reader.nextName();
+                        if (name.equals("id") || name.equals("name")) {
+                            String version = extract(reader.nextString());
+                            if (version != null) return version;
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                }
+            }
+
+            ZipEntry versionsList = zip.getEntry("META-INF/versions.list");
+            if (versionsList != null) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(zip.getInputStream(versionsList), StandardCharsets.UTF_8))) {
+                    String line = reader.readLine();
+                    String[] columns = line == null ? new String[0] : line.split("\t");
+                    if (columns.length >= 2) return extract(columns[1]);
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // not a jar we can read, try the next one
+        }
+
+        return null;
+    }
+
+    private static int parsePart(String part) {
+        int end = 0;
+        while (end < part.length() && Character.isDigit(part.charAt(end))) end++;
+        return end == 0 ? 0 : Integer.parseInt(part.substring(0, end));
+    }
+}
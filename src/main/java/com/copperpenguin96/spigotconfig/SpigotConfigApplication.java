@@ -2,6 +2,11 @@ package com.copperpenguin96.spigotconfig;
 
 public class SpigotConfigApplication {
     public static void main(String[] args) {
+        // Scripts can edit files without ever starting JavaFX
+        if (HeadlessCli.isHeadless(args)) {
+            System.exit(HeadlessCli.run(args));
+        }
+
         ConfigApplication.main(args);
     }
 }
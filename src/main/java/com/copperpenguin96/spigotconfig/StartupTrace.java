@@ -0,0 +1,175 @@
+package com.copperpenguin96.spigotconfig;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Times the phases of opening the window, and each plugin jar and tab along the way, so a slow start can be pinned on
+ * whatever causes it. Spans are timed with {@link System#nanoTime()} and kept in memory; they're shown in the
+ * diagnostics tab and can be written out as JSON in the Chrome trace format (chrome://tracing, Perfetto).
+ * <p>
+ * Example: {@code try (StartupTrace.Timer timer = StartupTrace.begin("startup", "Load server.properties")) { ... }}
+ */
+public final class StartupTrace {
+
+    /**
+     * Something that was timed.
+     * @param category What kind of thing it was, like startup, plugin or tab.
+     * @param name What it was.
+     * @param thread The thread it ran on.
+     * @param start When it started, in nanoseconds since the process was launched.
+     * @param duration How long it took, in nanoseconds.
+     */
+    public record Span(String category, String name, String thread, long start, long duration) { }
+
+    /**
+     * A span that is still running. Closing it records it.
+     */
+    public static final class Timer implements AutoCloseable {
+        private final String _category;
+        private final String _name;
+        private final long _start = System.nanoTime();
+
+        private Timer(String category, String name) {
+            _category = category;
+            _name = name;
+        }
+
+        @Override
+        public void close() {
+            record(_category, _name, _start, System.nanoTime());
+        }
+    }
+
+    /// Stops recording past this many spans, so watching files for days doesn't grow the trace forever.
+    private static final int MAX_SPANS = 10_000;
+
+    /// The nanoTime of the moment the process was launched, or of when this class loaded if that can't be told.
+    private static final long ORIGIN = findOrigin();
+
+    /// The recorded spans, in the order they finished.
+    private static final ConcurrentLinkedQueue<Span> SPANS = new ConcurrentLinkedQueue<>();
+
+    /// How many spans were recorded.
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    private StartupTrace() { }
+
+    /**
+     * Starts timing something. Use with try-with-resources.
+     * @param category What kind of thing it is, like startup, plugin or tab.
+     * @param name What it is.
+     * @return The running span, recorded when closed.
+     */
+    public static Timer begin(String category, String name) {
+        return new Timer(category, name);
+    }
+
+    /**
+     * Records something that was timed elsewhere.
+     * @param category What kind of thing it was.
+     * @param name What it was.
+     * @param start The nanoTime it started at.
+     * @param end The nanoTime it ended at.
+     */
+    public static void record(String category, String name, long start, long end) {
+        if (COUNT.getAndIncrement() >= MAX_SPANS) return;
+
+        // Virtual threads have no name unless given one.
+        Thread thread = Thread.currentThread();
+        String threadName = thread.getName().isEmpty() ? "virtual-" + thread.threadId() : thread.getName();
+        SPANS.add(new Span(category, name, threadName, start - ORIGIN, end - start));
+    }
+
+    /**
+     * Records the time from the launch of the process until now, which covers starting the JVM and JavaFX.
+     * @param name What to call it.
+     */
+    public static void recordSinceLaunch(String name) {
+        record("startup", name, ORIGIN, System.nanoTime());
+    }
+
+    /**
+     * Gets the spans recorded so far, in the order they finished.
+     */
+    public static List<Span> getSpans() {
+        return new ArrayList<>(SPANS);
+    }
+
+    /**
+     * Writes the spans in the Chrome trace format.
+     * @param out Where to write them. Not closed.
+     * @throws IOException Will throw if they can't be written.
+     */
+    public static void writeJson(Writer out) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.setIndent("  ");
+
+        long pid = ProcessHandle.current().pid();
+        LinkedHashMap<String, Integer> threads = new LinkedHashMap<>();
+
+        json.beginObject();
+        json.name("displayTimeUnit").value("ms");
+        json.name("traceEvents").beginArray();
+        for (Span span : getSpans()) {
+            json.beginObject();
+            json.name("name").value(span.name());
+            json.name("cat").value(span.category());
+            json.name("ph").value("X");
+            json.name("ts").value(span.start() / 1_000.0);
+            json.name("dur").value(span.duration() / 1_000.0);
+            json.name("pid").value(pid);
+            json.name("tid").value(threads.computeIfAbsent(span.thread(), name -> threads.size() + 1));
+            json.endObject();
+        }
+
+        // Thread ids have to be numbers, the names go in metadata.
+        for (Map.Entry<String, Integer> thread : threads.entrySet()) {
+            json.beginObject();
+            json.name("name").value("thread_name");
+            json.name("ph").value("M");
+            json.name("pid").value(pid);
+            json.name("tid").value(thread.getValue());
+            json.name("args").beginObject().name("name").value(thread.getKey()).endObject();
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+    }
+
+    /**
+     * Writes the spans to a file in the Chrome trace format.
+     * @param file The file.
+     * @throws IOException Will throw if the file can't be written.
+     */
+    public static void writeJson(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeJson(out);
+        }
+    }
+
+    /**
+     * Works out the nanoTime the process was launched at, from the wall clock time it started.
+     */
+    private static long findOrigin() {
+        long now = System.nanoTime();
+        Instant launched = ProcessHandle.current().info().startInstant().orElse(null);
+        if (launched == null) return now;
+
+        long sinceLaunch = System.currentTimeMillis() - launched.toEpochMilli();
+        return sinceLaunch < 0 ? now : now - sinceLaunch * 1_000_000L;
+    }
+}
@@ -0,0 +1,72 @@
+package com.copperpenguin96.spigotconfig;
+
+import java.util.function.Supplier;
+
+/**
+ * Describes a tab provided by a plugin without building it. The tab (and its FXML) is only created the first time
+ * it is needed, usually when the user selects it.
+ */
+public class TabDescriptor {
+
+    /// The name of the tab, shown before it has been built.
+    private final String _name;
+
+    /// Builds the tab when it is first needed.
+    private final Supplier<? extends ConfigTab> _factory;
+
+    /// The tab once it has been built.
+    private ConfigTab _tab;
+
+    /**
+     * Creates a descriptor for a tab that will be built later.
+     * @param name The name shown to the end user.
+     * @param factory Creates the tab, loading its scene.
+     */
+    public TabDescriptor(String name, Supplier<? extends ConfigTab> factory) {
+        _name = name;
+        _factory = factory;
+    }
+
+    /**
+     * Creates a descriptor for a tab that has already been built.
+     * @param tab The tab.
+     */
+    public TabDescriptor(ConfigTab tab) {
+        _name = tab.Name;
+        _factory = () -> tab;
+        _tab = tab;
+    }
+
+    /**
+     * Gets the name of the tab.
+     */
+    public String getName() {
+        return _name;
+    }
+
+    /**
+     * Whether the tab has been built yet.
+     */
+    public boolean isLoaded() {
+        return _tab != null;
+    }
+
+    /**
+     * Gets the tab, building it if this is the first time it's needed.
+     * @return The tab.
+     */
+    public ConfigTab get() {
+        if (_tab == null) {
+            _tab = _factory.get();
+        }
+        return _tab;
+    }
+
+    /**
+     * Gets the tab only if it has already been built.
+     * @return The tab, or null if it hasn't been built.
+     */
+    public ConfigTab getIfLoaded() {
+        return _tab;
+    }
+}
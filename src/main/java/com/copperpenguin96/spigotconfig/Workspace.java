@@ -0,0 +1,262 @@
+package com.copperpenguin96.spigotconfig;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Several servers opened at once. Each server is kept as a plain row of values rather than a screen full of
+ * controls, and the values are shared: every distinct string is stored once, and servers with the same settings share
+ * the same row. A fleet of servers that mostly agree costs little more than a single one.
+ */
+public class Workspace {
+
+    /**
+     * A row of values with its schema, compared by content so identical rows can be shared.
+     */
+    private record Row(PropertySchema schema, String[] values) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Row row && row.schema == schema && Arrays.equals(row.values, values);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(schema) * 31 + Arrays.hashCode(values);
+        }
+    }
+
+    /// The servers, in the order they were given.
+    private final List<WorkspaceServer> _servers = new ArrayList<>();
+
+    /// The servers that couldn't be opened, with the reason.
+    private final List<String> _failures = new ArrayList<>();
+
+    /// Every distinct value, so equal values across servers are the same string.
+    private final ConcurrentHashMap<String, String> _strings = new ConcurrentHashMap<>();
+
+    /// Every distinct row, so servers with the same settings share one array.
+    private final ConcurrentHashMap<Row, Row> _rows = new ConcurrentHashMap<>();
+
+    /// Only created through open.
+    private Workspace() { }
+
+    /**
+     * Opens the server.properties of every directory. Directories are read concurrently.
+     * @param dirs The server directories.
+     * @return The workspace. Directories that couldn't be opened are listed in {@link #getFailures()}.
+     */
+    public static Workspace open(Collection<Path> dirs) {
+        return open(dirs, opened -> { });
+    }
+
+    /**
+     * Opens the server.properties of every directory. Directories are read concurrently.
+     * @param dirs The server directories.
+     * @param progress Told how many directories are done every time one is, on the thread that read it.
+     * @return The workspace. Directories that couldn't be opened are listed in {@link #getFailures()}.
+     */
+    public static Workspace open(Collection<Path> dirs, IntConsumer progress) {
+        Workspace workspace = new Workspace();
+        AtomicInteger done = new AtomicInteger();
+
+        ArrayList<Future<WorkspaceServer>> loads = new ArrayList<>();
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (Path dir : dirs) {
+                loads.add(workers.submit(() -> {
+                    try {
+                        return WorkspaceServer.load(workspace, dir);
+                    } finally {
+                        progress.accept(done.incrementAndGet());
+                    }
+                }));
+            }
+
+            int x = 0;
+            for (Path dir : dirs) {
+                try {
+                    workspace._servers.add(loads.get(x++).get());
+                } catch (ExecutionException e) {
+                    workspace._failures.add(dir + ": " + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+        }
+
+        return workspace;
+    }
+
+    /**
+     * Gets the servers, in the order they were given.
+     */
+    public List<WorkspaceServer> getServers() {
+        return Collections.unmodifiableList(_servers);
+    }
+
+    /**
+     * Gets the servers that couldn't be opened, with the reason.
+     */
+    public List<String> getFailures() {
+        return Collections.unmodifiableList(_failures);
+    }
+
+    /**
+     * Gets every key any of the servers has, in schema order.
+     */
+    public List<String> getKeys() {
+        LinkedHashSet<String> keys = new LinkedHashSet<>();
+        for (WorkspaceServer server : _servers) {
+            PropertySchema schema = server.getSchema();
+            for (int x = 0; x < schema.size(); x++) {
+                keys.add(schema.get(x).getKey());
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * Checks if the servers disagree on a key.
+     * @param key The key.
+     * @return True if at least two servers have a different value for it.
+     */
+    public boolean differs(String key) {
+        boolean first = true;
+        String value = null;
+        for (WorkspaceServer server : _servers) {
+            String other = server.get(key);
+            if (first) {
+                value = other;
+                first = false;
+            } else if (!Objects.equals(value, other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets a key on every matching server that has it. Nothing is written until {@link #saveAll(boolean)}.
+     * @param key The key.
+     * @param value The value.
+     * @param which Which servers to change.
+     * @return The number of servers whose value changed.
+     * @throws IllegalArgumentException Will throw if the value isn't valid for the key.
+     */
+    public int setAll(String key, String value, Predicate<WorkspaceServer> which) {
+        int changed = 0;
+        for (WorkspaceServer server : _servers) {
+            if (which.test(server) && server.set(key, value)) changed++;
+        }
+        return changed;
+    }
+
+    /**
+     * Writes every server with unsaved changes. Servers are written concurrently.
+     * @param backup Whether to keep the previous files as server.properties.bak.
+     * @return The servers that couldn't be saved, with the reason. Empty if all went through.
+     */
+    public List<String> saveAll(boolean backup) {
+        return saveAll(backup, saved -> { });
+    }
+
+    /**
+     * Writes every server with unsaved changes. Servers are written concurrently.
+     * @param backup Whether to keep the previous files as server.properties.bak.
+     * @param progress Told how many servers are done every time one is, on the thread that wrote it.
+     * @return The servers that couldn't be saved, with the reason. Empty if all went through.
+     */
+    public List<String> saveAll(boolean backup, IntConsumer progress) {
+        ArrayList<String> failures = new ArrayList<>();
+        ArrayList<Future<?>> saves = new ArrayList<>();
+        AtomicInteger done = new AtomicInteger();
+
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (WorkspaceServer server : _servers) {
+                saves.add(!server.isChanged() ? null : workers.submit(() -> {
+                    try {
+                        return server.save(backup);
+                    } finally {
+                        progress.accept(done.incrementAndGet());
+                    }
+                }));
+            }
+
+            for (int x = 0; x < saves.size(); x++) {
+                if (saves.get(x) == null) continue;
+
+                try {
+                    saves.get(x).get();
+                } catch (ExecutionException e) {
+                    failures.add(_servers.get(x).getDir() + ": " + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.add("Interrupted while saving");
+        } finally {
+            workers.shutdownNow();
+        }
+
+        return failures;
+    }
+
+    /**
+     * Gets the number of distinct rows of values, which is how many different configurations the fleet really has.
+     */
+    public int getDistinctRows() {
+        Set<String[]> rows = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (WorkspaceServer server : _servers) {
+            rows.add(server.getValues());
+        }
+        return rows.size();
+    }
+
+    /**
+     * Gets the shared copy of a value.
+     * @param value The value, or null.
+     * @return An equal string that every server uses.
+     */
+    String intern(String value) {
+        if (value == null) return null;
+
+        String shared = _strings.putIfAbsent(value, value);
+        return shared == null ? value : shared;
+    }
+
+    /**
+     * Turns loaded properties into a shared row of values.
+     * @param schema The schema the values are indexed by.
+     * @param props The properties.
+     * @return The row, shared with every other server with the same values. Must not be modified.
+     */
+    String[] share(PropertySchema schema, ServerProperties props) {
+        String[] values = new String[schema.size()];
+        for (int x = 0; x < values.length; x++) {
+            if (props.isSet(x)) values[x] = intern(props.getString(x));
+        }
+
+        Row row = new Row(schema, values);
+        Row shared = _rows.putIfAbsent(row, row);
+        return shared == null ? values : shared.values();
+    }
+}
@@ -0,0 +1,215 @@
+package com.copperpenguin96.spigotconfig;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.geometry.Insets;
+import javafx.scene.control.*;
+import javafx.scene.control.cell.TextFieldTableCell;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.util.converter.DefaultStringConverter;
+
+import java.util.List;
+
+/**
+ * Shows every server of a {@link Workspace} in a table, one row per server and one column per key, so settings can
+ * be compared at a glance. Cells can be edited one at a time, or a key can be set on many servers at once.
+ */
+public class WorkspaceScreen extends BorderPane {
+
+    /// The servers being shown.
+    private final Workspace _workspace;
+
+    /// One row per server.
+    private final TableView<WorkspaceServer> _table = new TableView<>();
+
+    /// The key to set on many servers at once.
+    private final ComboBox<String> _cboKey = new ComboBox<>();
+
+    /// The value to set it to.
+    private final TextField _txtValue = new TextField();
+
+    /// Hides the columns of keys every server agrees on.
+    private final CheckBox _chkDiffering = new CheckBox("Only differing keys");
+
+    /// Shows how many servers there are and how many actually differ.
+    private final Label _lblStatus = new Label();
+
+    /// Writes the changed servers. Disabled while a save is running.
+    private final Button _btnSave = new Button("Save");
+
+    /**
+     * Creates the screen for the specified workspace.
+     * @param workspace The workspace.
+     */
+    public WorkspaceScreen(Workspace workspace) {
+        _workspace = workspace;
+
+        _cboKey.getItems().setAll(workspace.getKeys());
+        _cboKey.setEditable(false);
+        _txtValue.setPromptText("Value");
+        HBox.setHgrow(_txtValue, Priority.ALWAYS);
+
+        Button btnSelected = new Button("Set on selected");
+        btnSelected.setOnAction(event -> setOnServers(true));
+        Button btnAll = new Button("Set on all");
+        btnAll.setOnAction(event -> setOnServers(false));
+        Button btnRevert = new Button("Revert");
+        btnRevert.setOnAction(event -> revert());
+        _btnSave.setOnAction(event -> save());
+        _chkDiffering.setOnAction(event -> buildColumns());
+
+        HBox toolbar = new HBox(8, new Label("Key"), _cboKey, _txtValue, btnSelected, btnAll, _chkDiffering, btnRevert, _btnSave);
+        toolbar.setPadding(new Insets(8));
+        setTop(toolbar);
+
+        _table.setEditable(true);
+        _table.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        _table.getItems().setAll(workspace.getServers());
+        setCenter(_table);
+
+        _lblStatus.setPadding(new Insets(4, 8, 4, 8));
+        setBottom(_lblStatus);
+
+        buildColumns();
+        updateStatus();
+
+        if (!workspace.getFailures().isEmpty()) {
+            Alert failed = new Alert(Alert.AlertType.WARNING);
+            failed.setTitle("Some servers couldn't be opened");
+            failed.setHeaderText("Some servers couldn't be opened");
+            failed.setContentText(String.join("\n", workspace.getFailures()));
+            failed.show();
+        }
+    }
+
+    /**
+     * Creates a column for every key, or only the keys the servers disagree on.
+     */
+    private void buildColumns() {
+        _table.getColumns().clear();
+
+        TableColumn<WorkspaceServer, String> server = new TableColumn<>("Server");
+        server.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().toString()));
+        server.setEditable(false);
+        _table.getColumns().add(server);
+
+        for (String key : _workspace.getKeys()) {
+            if (_chkDiffering.isSelected() && !_workspace.differs(key)) continue;
+            _table.getColumns().add(createColumn(key));
+        }
+    }
+
+    /**
+     * Creates the column of a key. Edited cells are shown in bold until they are saved.
+     */
+    private TableColumn<WorkspaceServer, String> createColumn(String key) {
+        TableColumn<WorkspaceServer, String> column = new TableColumn<>(key);
+        column.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().get(key)));
+        column.setCellFactory(col -> new TextFieldTableCell<>(new DefaultStringConverter()) {
+            @Override
+            public void updateItem(String item, boolean empty) {
+                super.updateItem(item, empty);
+
+                WorkspaceServer row = empty ? null : getTableRow().getItem();
+                setStyle(row != null && row.isChanged(key) ? "-fx-font-weight: bold;" : "");
+                setEditable(row != null && row.getSchema().indexOf(key) >= 0);
+            }
+        });
+        column.setOnEditCommit(event -> {
+            try {
+                event.getRowValue().set(key, event.getNewValue() == null ? "" : event.getNewValue());
+            } catch (IllegalArgumentException e) {
+                showInvalid(e.getMessage());
+            }
+            _table.refresh();
+            updateStatus();
+        });
+        return column;
+    }
+
+    /**
+     * Sets the chosen key on the selected servers, or all of them.
+     * @param selectedOnly Whether to only change the selected servers.
+     */
+    private void setOnServers(boolean selectedOnly) {
+        String key = _cboKey.getValue();
+        if (key == null) return;
+
+        List<WorkspaceServer> selected = List.copyOf(_table.getSelectionModel().getSelectedItems());
+        try {
+            int changed = _workspace.setAll(key, _txtValue.getText(), server -> !selectedOnly || selected.contains(server));
+            _lblStatus.setText(changed + " servers changed");
+        } catch (IllegalArgumentException e) {
+            showInvalid(e.getMessage());
+        }
+
+        _table.refresh();
+    }
+
+    /**
+     * Drops every unsaved edit.
+     */
+    private void revert() {
+        for (WorkspaceServer server : _workspace.getServers()) {
+            server.revert();
+        }
+        _table.refresh();
+        updateStatus();
+    }
+
+    /**
+     * Writes every changed server in the background, so the window doesn't freeze on a large fleet. Progress is shown
+     * on the save button, which stays disabled until the save is done.
+     */
+    private void save() {
+        long changed = _workspace.getServers().stream().filter(WorkspaceServer::isChanged).count();
+        if (changed == 0) return;
+
+        _btnSave.setDisable(true);
+        _btnSave.setText("Saving 0/" + changed);
+        Thread.ofVirtual().name("workspace-save").start(() -> {
+            List<String> failures = _workspace.saveAll(false, saved ->
+                    Platform.runLater(() -> _btnSave.setText("Saving " + saved + "/" + changed)));
+            Platform.runLater(() -> finishSave(failures));
+        });
+    }
+
+    /**
+     * Shows the outcome of a save. Called on the FX thread.
+     * @param failures The servers that couldn't be saved, with the reason.
+     */
+    private void finishSave(List<String> failures) {
+        _btnSave.setText("Save");
+        _btnSave.setDisable(false);
+        _table.refresh();
+        updateStatus();
+
+        if (!failures.isEmpty()) {
+            Alert failed = new Alert(Alert.AlertType.WARNING);
+            failed.setTitle("Save incomplete");
+            failed.setHeaderText("Not every server could be saved");
+            failed.setContentText(String.join("\n", failures));
+            failed.show();
+        }
+    }
+
+    private void updateStatus() {
+        int changed = 0;
+        for (WorkspaceServer server : _workspace.getServers()) {
+            if (server.isChanged()) changed++;
+        }
+
+        _lblStatus.setText(_workspace.getServers().size() + " servers, " + _workspace.getDistinctRows()
+                + " distinct configurations, " + changed + " with unsaved changes");
+    }
+
+    private void showInvalid(String message) {
+        Alert invalid = new Alert(Alert.AlertType.WARNING);
+        invalid.setTitle("Invalid value");
+        invalid.setHeaderText("Invalid value");
+        invalid.setContentText(message);
+        invalid.show();
+    }
+}
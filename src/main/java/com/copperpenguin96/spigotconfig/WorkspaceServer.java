@@ -0,0 +1,150 @@
+package com.copperpenguin96.spigotconfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A single server of a {@link Workspace}: its directory, the schema of its version and its values. The values are a
+ * shared row that is never changed in place, edits are kept on the side until the server is saved.
+ */
+public class WorkspaceServer {
+
+    /// The workspace the server belongs to, which owns the shared values.
+    private final Workspace _workspace;
+
+    /// The server's root directory.
+    private final Path _dir;
+
+    /// The properties the server's version has.
+    private final PropertySchema _schema;
+
+    /// The values as they are on disk, indexed by schema position. Shared with other servers, never modified.
+    private volatile String[] _values;
+
+    /// Edits that haven't been saved yet, by schema position.
+    private final Map<Integer, String> _pending = new HashMap<>();
+
+    private WorkspaceServer(Workspace workspace, Path dir, PropertySchema schema, String[] values) {
+        _workspace = workspace;
+        _dir = dir;
+        _schema = schema;
+        _values = values;
+    }
+
+    /**
+     * Reads a server's server.properties, using the schema of its version.
+     * @param workspace The workspace the server belongs to.
+     * @param dir The server's root directory.
+     * @return The server.
+     * @throws IOException Will throw if there is no server.properties or it can't be read.
+     */
+    static WorkspaceServer load(Workspace workspace, Path dir) throws IOException {
+        Path file = dir.resolve("server.properties");
+        if (!Files.isRegularFile(file)) throw new IOException("server.properties not found");
+
+        PropertySchema schema = SchemaPack.forServer(dir);
+        ServerProperties props = ServerProperties.load(schema, file);
+        return new WorkspaceServer(workspace, dir, schema, workspace.share(schema, props));
+    }
+
+    public Path getDir() {
+        return _dir;
+    }
+
+    public PropertySchema getSchema() {
+        return _schema;
+    }
+
+    /// The row of values as they are on disk, shared with other servers.
+    String[] getValues() {
+        return _values;
+    }
+
+    /**
+     * Gets a value, including unsaved edits.
+     * @param key The key.
+     * @return The value, or null if the server doesn't have it set.
+     */
+    public synchronized String get(String key) {
+        int index = _schema.indexOf(key);
+        if (index < 0) return null;
+
+        String pending = _pending.get(index);
+        return pending != null ? pending : _values[index];
+    }
+
+    /**
+     * Changes a value. Nothing is written until the server is saved.
+     * @param key The key.
+     * @param value The new value.
+     * @return False if the value was already that, or the server's version doesn't have the key.
+     * @throws IllegalArgumentException Will throw if the value isn't valid for the key.
+     */
+    public synchronized boolean set(String key, String value) {
+        int index = _schema.indexOf(key);
+        if (index < 0) return false;
+
+        String problem = _schema.get(index).validate(value);
+        if (problem != null) throw new IllegalArgumentException(key + " " + problem);
+
+        if (value.equals(_values[index])) {
+            return _pending.remove(index) != null;
+        }
+
+        String previous = _pending.put(index, _workspace.intern(value));
+        return !value.equals(previous);
+    }
+
+    /**
+     * Checks if a key has an unsaved edit.
+     */
+    public synchronized boolean isChanged(String key) {
+        int index = _schema.indexOf(key);
+        return index >= 0 && _pending.containsKey(index);
+    }
+
+    /**
+     * Checks if the server has unsaved edits.
+     */
+    public synchronized boolean isChanged() {
+        return !_pending.isEmpty();
+    }
+
+    /**
+     * Drops the unsaved edits.
+     */
+    public synchronized void revert() {
+        _pending.clear();
+    }
+
+    /**
+     * Writes the unsaved edits. The file is read again first so only the edited lines change, even if something
+     * else touched the file since it was opened.
+     * @param backup Whether to keep the previous file as server.properties.bak.
+     * @return True if the file was written.
+     * @throws IOException Will throw if the file can't be read or written.
+     */
+    public synchronized boolean save(boolean backup) throws IOException {
+        if (_pending.isEmpty()) return false;
+
+        Path file = _dir.resolve("server.properties");
+        ServerProperties props = ServerProperties.load(_schema, file);
+        for (Map.Entry<Integer, String> edit : _pending.entrySet()) {
+            props.set(edit.getKey(), edit.getValue());
+        }
+
+        boolean written = props.save(file, backup);
+        _values = _workspace.share(_schema, props);
+        _pending.clear();
+        return written;
+    }
+
+    @Override
+    public String toString() {
+        Path name = _dir.toAbsolutePath().normalize().getFileName();
+        return (name == null ? _dir.toString() : name.toString()) + " (" + _schema.getVersion() + ")";
+    }
+}
@@ -4,6 +4,7 @@ module com.copperpenguin96.spigotconfig {
     requires org.yaml.snakeyaml;
     requires com.google.gson;
     requires javafx.web;
+    requires jdk.jfr;
 
 
     opens com.copperpenguin96.spigotconfig to javafx.fxml;
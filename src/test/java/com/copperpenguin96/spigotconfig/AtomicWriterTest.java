@@ -0,0 +1,113 @@
+package com.copperpenguin96.spigotconfig;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AtomicWriterTest {
+
+    @TempDir
+    Path _dir;
+
+    private static void write(Path file, String text) throws IOException {
+        AtomicWriter.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+
+    @Test
+    void replacesTheContents() throws IOException {
+        Path file = _dir.resolve("server.properties");
+        write(file, "motd=a\n");
+        write(file, "motd=b\n");
+
+        assertEquals("motd=b\n", Files.readString(file));
+        try (var files = Files.list(_dir)) {
+            assertEquals(1, files.count(), "no temporary files are left behind");
+        }
+    }
+
+    @Test
+    void keepsTheBackupNextToTheTarget() throws IOException {
+        Path file = _dir.resolve("server.properties");
+        write(file, "motd=a\n");
+        AtomicWriter.write(file, ByteBuffer.wrap("motd=b\n".getBytes(StandardCharsets.UTF_8)), true);
+
+        assertEquals("motd=a\n", Files.readString(_dir.resolve("server.properties.bak")));
+    }
+
+    @Test
+    void keepsThePermissionsOfTheTarget() throws IOException {
+        assumeTrue(isPosix());
+
+        Path file = _dir.resolve("server.properties");
+        write(file, "rcon.password=secret\n");
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+        Files.setPosixFilePermissions(file, permissions);
+        write(file, "rcon.password=other\n");
+
+        assertEquals(permissions, Files.getPosixFilePermissions(file));
+    }
+
+    @Test
+    void newFilesAreNotPrivate() throws IOException {
+        assumeTrue(isPosix());
+
+        Path file = _dir.resolve("new.bin");
+        write(file, "data");
+        Path plain = Files.createFile(_dir.resolve("plain.bin"));
+
+        assertEquals(Files.getPosixFilePermissions(plain), Files.getPosixFilePermissions(file),
+                "a new file gets the same permissions as any other new file");
+    }
+
+    @Test
+    void symbolicLinksStayLinks() throws IOException {
+        Path shared = Files.createDirectories(_dir.resolve("shared")).resolve("server.properties");
+        write(shared, "motd=a\n");
+        Path server = Files.createDirectories(_dir.resolve("server"));
+        Path link;
+        try {
+            link = Files.createSymbolicLink(server.resolve("server.properties"), shared);
+        } catch (UnsupportedOperationException | IOException e) {
+            assumeTrue(false); // no links here, or not allowed to make them
+            return;
+        }
+
+        write(link, "motd=b\n");
+
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals("motd=b\n", Files.readString(shared));
+    }
+
+    @Test
+    void linksToMissingFilesCreateTheFile() throws IOException {
+        Path shared = _dir.resolve("shared.properties");
+        Path link;
+        try {
+            link = Files.createSymbolicLink(_dir.resolve("server.properties"), shared.getFileName());
+        } catch (UnsupportedOperationException | IOException e) {
+            assumeTrue(false);
+            return;
+        }
+
+        write(link, "motd=a\n");
+
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals("motd=a\n", Files.readString(shared));
+    }
+}
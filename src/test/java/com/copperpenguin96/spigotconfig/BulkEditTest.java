@@ -0,0 +1,84 @@
+package com.copperpenguin96.spigotconfig;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkEditTest {
+
+    @TempDir
+    Path _root;
+
+    private Path server(String name, String properties) throws IOException {
+        Path dir = Files.createDirectories(_root.resolve(name));
+        Files.writeString(dir.resolve("server.properties"), properties, StandardCharsets.UTF_8);
+        return dir;
+    }
+
+    private static String read(Path dir) throws IOException {
+        return Files.readString(dir.resolve("server.properties"), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void previewWritesNothing() throws IOException {
+        Path a = server("a", "#header\nmotd=a\nmax-players=20\n");
+
+        List<BulkEdit.Diff> preview = new BulkEdit().set("max-players", "50").preview(List.of(a));
+
+        assertEquals(BulkEdit.Status.PENDING, preview.get(0).status());
+        assertEquals(List.of(new BulkEdit.Change("max-players", "20", "50")), preview.get(0).changes());
+        assertEquals("#header\nmotd=a\nmax-players=20\n", read(a));
+        assertFalse(Files.exists(a.resolve(".spigotconfig")));
+    }
+
+    @Test
+    void applyOnlyChangesMatchingServers() throws IOException {
+        Path a = server("a", "#header\nmotd=a\npvp=true\n");
+        Path b = server("b", "motd=b\npvp=false\n");
+        Path c = server("c", "motd=c\r\npvp=false\r\nmax-players=10\r\n");
+
+        List<BulkEdit.Diff> result = new BulkEdit().set("max-players", "50").where("pvp", "false").apply(List.of(a, b, c));
+
+        assertEquals(BulkEdit.Status.SKIPPED, result.get(0).status());
+        assertEquals(BulkEdit.Status.WRITTEN, result.get(1).status());
+        assertEquals(BulkEdit.Status.WRITTEN, result.get(2).status());
+        assertEquals("#header\nmotd=a\npvp=true\n", read(a));
+        assertEquals("motd=b\npvp=false\nmax-players=50\n", read(b));
+        assertEquals("motd=c\r\npvp=false\r\nmax-players=50\r\n", read(c));
+    }
+
+    @Test
+    void serversThatAlreadyHaveTheValueAreUnchanged() throws IOException {
+        Path a = server("a", "motd=a\nmotd=a\nmax-players=50\n");
+
+        List<BulkEdit.Diff> result = new BulkEdit().set("max-players", "50").apply(List.of(a));
+
+        assertEquals(BulkEdit.Status.UNCHANGED, result.get(0).status());
+        assertEquals("motd=a\nmotd=a\nmax-players=50\n", read(a));
+    }
+
+    @Test
+    void invalidValuesFailWithoutWriting() throws IOException {
+        Path a = server("a", "max-players=20\n");
+
+        List<BulkEdit.Diff> result = new BulkEdit().set("max-players", "many").apply(List.of(a));
+
+        assertEquals(BulkEdit.Status.FAILED, result.get(0).status());
+        assertNotNull(result.get(0).error());
+        assertEquals("max-players=20\n", read(a));
+    }
+
+    @Test
+    void missingServersFail() {
+        List<BulkEdit.Diff> result = new BulkEdit().set("pvp", "true").preview(List.of(_root.resolve("missing")));
+
+        assertEquals(BulkEdit.Status.FAILED, result.get(0).status());
+    }
+}
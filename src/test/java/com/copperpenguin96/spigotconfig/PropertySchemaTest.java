@@ -0,0 +1,45 @@
+package com.copperpenguin96.spigotconfig;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PropertySchemaTest {
+
+    private static PropertySchema load(String json) throws IOException {
+        return PropertySchema.load(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void everyVanillaKeyIsFound() {
+        PropertySchema schema = PropertySchema.VANILLA;
+        for (int x = 0; x < schema.size(); x++) {
+            assertEquals(x, schema.indexOf(schema.get(x).getKey()));
+        }
+        assertEquals(-1, schema.indexOf("not-a-key"));
+    }
+
+    @Test
+    void repeatedKeysAreRejected() {
+        IOException e = assertThrows(IOException.class, () -> load("""
+                {"version": "1.0", "properties": [
+                    {"key": "pvp", "type": "boolean", "default": "true"},
+                    {"key": "pvp", "type": "boolean", "default": "false"}
+                ]}
+                """));
+        assertTrue(e.getMessage().contains("pvp"));
+    }
+
+    @Test
+    void keysWithTheSameHashAreRejected() {
+        // "Aa" and "BB" are a well known String.hashCode collision.
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        PropertySchema.Builder builder = new PropertySchema.Builder().string("Aa", "").string("BB", "");
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+}
@@ -0,0 +1,215 @@
+package com.copperpenguin96.spigotconfig;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerPropertiesTest {
+
+    private static ServerProperties parse(String text) {
+        return ServerProperties.parse(PropertySchema.VANILLA, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String render(ServerProperties props) {
+        return new String(props.render(), StandardCharsets.UTF_8);
+    }
+
+    private static void assertRoundTrip(String text) {
+        byte[] data = text.getBytes(StandardCharsets.UTF_8);
+        ServerProperties props = ServerProperties.parse(PropertySchema.VANILLA, data);
+
+        assertArrayEquals(data, props.render());
+        assertNull(props.snapshot(), "an untouched file shouldn't be written");
+        assertFalse(props.isChanged());
+    }
+
+    // region Round trip
+
+    @Test
+    void untouchedFileIsByteIdentical() {
+        assertRoundTrip("""
+                #Minecraft server properties
+                #Sat Jan 01 00:00:00 UTC 2000
+
+                motd=A Minecraft Server
+                  max-players : 20
+                pvp   true
+                ! another comment
+                some-plugin-key=kept
+                """);
+    }
+
+    @Test
+    void untouchedCrLfFileIsByteIdentical() {
+        assertRoundTrip("#comment\r\nmotd=hi\r\n\r\npvp=false\r\nmax-players=5\r\n");
+    }
+
+    @Test
+    void untouchedFileWithBomIsByteIdentical() {
+        assertRoundTrip("\uFEFFmotd=hi\npvp=false\n");
+    }
+
+    @Test
+    void untouchedFileWithContinuationsIsByteIdentical() {
+        assertRoundTrip("motd=first \\\n    second \\\r\n\tthird\npvp=false\n");
+        assertRoundTrip("pvp=false\nmotd=ends with a backslash\\");
+    }
+
+    @Test
+    void untouchedFileWithRepeatedKeysIsByteIdentical() {
+        assertRoundTrip("motd=first\npvp=false\nmotd=second\nunknown=1\nunknown=2\n");
+    }
+
+    @Test
+    void untouchedFileWithoutTrailingLineBreakIsByteIdentical() {
+        assertRoundTrip("motd=hi\npvp=false");
+    }
+
+    // endregion
+
+    // region Parsing
+
+    @Test
+    void bomIsNotPartOfTheFirstKey() {
+        ServerProperties props = parse("\uFEFFmotd=hi\n");
+
+        assertEquals("hi", props.get("motd"));
+        assertTrue(props.getOther().isEmpty());
+    }
+
+    @Test
+    void crLfIsNotPartOfTheValue() {
+        ServerProperties props = parse("motd=hi\r\npvp=false\r\n");
+
+        assertEquals("hi", props.get("motd"));
+        assertFalse(props.getBoolean("pvp"));
+    }
+
+    @Test
+    void continuationsAreJoined() {
+        ServerProperties props = parse("motd=first \\\r\n    second\n");
+
+        assertEquals("first second", props.get("motd"));
+    }
+
+    @Test
+    void lastRepeatWins() {
+        ServerProperties props = parse("motd=first\nmotd=second\n");
+
+        assertEquals("second", props.get("motd"));
+    }
+
+    @Test
+    void unparsableValuesReadAsTheDefault() {
+        ServerProperties props = parse("pvp=ture\nhardcore=yes\nmax-players=lots\n");
+
+        assertTrue(props.getBoolean("pvp"));
+        assertFalse(props.getBoolean("hardcore"));
+        assertEquals(20, props.getInt("max-players"));
+        assertEquals("ture", props.get("pvp"), "the text is kept so it can be written back");
+    }
+
+    // endregion
+
+    // region Editing
+
+    @Test
+    void editOnlyTouchesItsOwnLine() {
+        String text = """
+                #Minecraft server properties
+                motd=A Minecraft Server
+                  max-players : 20
+                pvp=true
+                some-plugin-key=kept
+                """;
+        ServerProperties props = parse(text);
+        props.setInt("max-players", 50);
+
+        List<String> before = text.lines().toList();
+        List<String> after = render(props).lines().toList();
+        assertEquals(before.size(), after.size());
+        for (int x = 0; x < before.size(); x++) {
+            if (x == 2) {
+                assertEquals("  max-players=50", after.get(x), "indentation before the key is kept");
+            } else {
+                assertEquals(before.get(x), after.get(x));
+            }
+        }
+    }
+
+    @Test
+    void editKeepsCrLf() {
+        ServerProperties props = parse("motd=hi\r\npvp=true\r\n");
+        props.setBoolean("pvp", false);
+        props.set("level-name", "new");
+
+        assertEquals("motd=hi\r\npvp=false\r\nlevel-name=new\r\n", render(props));
+    }
+
+    @Test
+    void editedRepeatedKeyIsMergedIntoItsFirstLine() {
+        ServerProperties props = parse("motd=first\npvp=true\nmotd=second\nunknown=1\nunknown=2\n");
+        props.set("motd", "third");
+
+        assertEquals("motd=third\npvp=true\nunknown=1\nunknown=2\n", render(props));
+    }
+
+    @Test
+    void settingTheSameValueDoesNotWrite() {
+        ServerProperties props = parse("motd=hi\npvp=true\n");
+        props.set("motd", "hi");
+        props.setBoolean("pvp", true);
+
+        assertNull(props.snapshot());
+    }
+
+    // endregion
+
+    // region Escaping
+
+    @Test
+    void separatorsInValuesAreEscaped() {
+        ServerProperties props = parse("motd=hi\n");
+        props.set("motd", "a:b=c");
+
+        assertEquals("motd=a\\:b\\=c\n", render(props));
+        assertEquals("a:b=c", parse(render(props)).get("motd"));
+    }
+
+    @Test
+    void separatorsInUnknownKeysAreEscaped() {
+        ServerProperties props = parse("motd=hi\n");
+        props.set("plugin:key=x", "value");
+
+        assertEquals("motd=hi\nplugin\\:key\\=x=value\n", render(props));
+        assertEquals("value", parse(render(props)).get("plugin:key=x"));
+    }
+
+    @Test
+    void nonAsciiValuesAreWrittenAsUtf8() {
+        ServerProperties props = parse("motd=hi\n");
+        props.set("motd", "Grüße ✓ 世界");
+
+        byte[] data = props.render();
+        assertArrayEquals("motd=Grüße ✓ 世界\n".getBytes(StandardCharsets.UTF_8), data);
+        assertEquals("Grüße ✓ 世界", ServerProperties.parse(PropertySchema.VANILLA, data).get("motd"));
+    }
+
+    @Test
+    void unicodeEscapesAreRead() {
+        assertEquals("é", parse("motd=\\u00e9\n").get("motd"));
+    }
+
+    @Test
+    void leadingSpaceAndLineBreaksSurviveARoundTrip() {
+        ServerProperties props = parse("motd=hi\n");
+        props.set("motd", " two\nlines\\");
+
+        assertEquals(" two\nlines\\", parse(render(props)).get("motd"));
+    }
+
+    // endregion
+}